@@ -0,0 +1,91 @@
+package org.tdubuis.benchmark;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.generator.TableGenerator;
+import org.tdubuis.template.RegionDeck;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Generation of the tables of a region and write of the region deck, for each table generator.
+ * xmlSlideShowWrite is the write of the same deck through a full XMLSlideShow, as done before the template snapshot.
+ */
+@State(Scope.Benchmark)
+public class GeneratorBenchmark extends BenchmarkDefaults {
+    @Param({"1,5,30,12,0.05,20"})
+    public String spec;
+    @Param({"XSLF", "DIRECT"})
+    public ConfigFile.TableGeneratorType generator;
+
+    private SyntheticFixture fixture;
+    private ExcelData region;
+    private CompiledConfig.Entry firstConfig;
+    private TableData firstTable;
+    private TableGenerator tableGenerator;
+    private RegionDeck generatedDeck;
+    private XMLSlideShow generatedPpt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidFormatException {
+        fixture = new SyntheticFixture(SyntheticDataSpec.parse(spec));
+        fixture.getConfig().setTableGenerator(generator);
+        region = fixture.getFirstRegion();
+        firstConfig = fixture.getConfig().getCompiled().getEntries().get(0);
+        firstTable = region.getDataMapMonth().get(firstConfig.title());
+        tableGenerator = TableGenerator.forConfig(fixture.getConfig());
+
+        generatedDeck = generateRegion();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generatedDeck.write(out);
+        generatedPpt = new XMLSlideShow(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        generatedPpt.close();
+        tableGenerator.close();
+        fixture.close();
+    }
+
+    @Benchmark
+    public RegionDeck generateSlide() throws IOException {
+        RegionDeck deck = new RegionDeck(fixture.getTemplate());
+        tableGenerator.generateSlide(firstTable, deck, firstConfig.anchor(), firstConfig.textSize(), firstConfig.slideMonth());
+        return deck;
+    }
+
+    @Benchmark
+    public RegionDeck generateRegion() throws IOException {
+        RegionDeck deck = new RegionDeck(fixture.getTemplate());
+        for (CompiledConfig.Entry config : fixture.getConfig().getCompiled().getEntries()) {
+            tableGenerator.generateSlide(region.getDataMapMonth().get(config.title()), deck, config.anchor(), config.textSize(), config.slideMonth());
+            tableGenerator.generateSlide(region.getDataMapYTD().get(config.title()), deck, config.anchor(), config.textSize(), config.slideYTD());
+        }
+        return deck;
+    }
+
+    @Benchmark
+    public void regionDeckWrite() throws IOException {
+        generatedDeck.write(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void xmlSlideShowWrite() throws IOException {
+        generatedPpt.write(OutputStream.nullOutputStream());
+    }
+}
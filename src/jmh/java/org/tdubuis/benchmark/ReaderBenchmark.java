@@ -0,0 +1,49 @@
+package org.tdubuis.benchmark;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.reader.ExcelReader;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Read of the workbook into the ExcelData of every region (every sheet merged by the RegionCollector).
+ */
+@State(Scope.Benchmark)
+public class ReaderBenchmark extends BenchmarkDefaults {
+    @Param({"10,5,30,12,0.05,20"})
+    public String spec;
+    @Param({"false", "true"})
+    public boolean streaming;
+    @Param({"1", "4"})
+    public int readerThreads;
+
+    private SyntheticFixture fixture;
+    private ExcelReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidFormatException {
+        fixture = new SyntheticFixture(SyntheticDataSpec.parse(spec));
+        fixture.getConfig().setStreamingExcelReader(streaming);
+        fixture.getConfig().setReaderThreads(readerThreads);
+        reader = ExcelReader.forConfig(fixture.getConfig());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Map<String, ExcelData> addDataToExcelData() throws IOException, InvalidFormatException {
+        return reader.read(fixture.getWorkbookFile());
+    }
+}
@@ -0,0 +1,204 @@
+package org.tdubuis.benchmark;
+
+import com.google.gson.GsonBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xssf.usermodel.DefaultIndexedColorMap;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.tdubuis.config.ConfigFile;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Write a workbook, a template and a config file with the layout expected by the converter, from a {@link SyntheticDataSpec}.
+ * The content only depends on the spec and the seed, so two runs compare the same data.
+ * Usage : SyntheticDataGenerator &lt;outputFolder&gt; [regions,blocks,rows,columns,mergeDensity,styles]
+ */
+public class SyntheticDataGenerator {
+    private static final Logger logger = LogManager.getLogger(SyntheticDataGenerator.class);
+
+    public static final String WORKBOOK_NAME = "synthetic.xlsx";
+    public static final String TEMPLATE_NAME = "synthetic.pptx";
+    public static final String CONFIG_NAME = "config.json";
+    private static final String[] DATA_FORMATS = {"General", "#,##0", "#,##0.00", "0.0%", "# ##0 \"k\"", "dd/mm/yyyy"};
+    private static final long SEED = 42;
+
+    private final SyntheticDataSpec spec;
+
+    public SyntheticDataGenerator(SyntheticDataSpec spec) {
+        this.spec = spec;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            logger.error("Need arguments <outputFolder> [regions,blocks,rows,columns,mergeDensity,styles]");
+            return;
+        }
+        SyntheticDataSpec spec = args.length == 2 ? SyntheticDataSpec.parse(args[1]) : new SyntheticDataSpec(10, 5, 30, 12, 0.05, 20);
+        File folder = new File(args[0]);
+        new SyntheticDataGenerator(spec).writeAll(folder);
+        logger.info("Synthetic data {} written in {}", spec, folder.getAbsolutePath());
+    }
+
+    /**
+     * Write the workbook, the template and the config file (pointing to both, output in a sub folder "output").
+     * @return the config, as written
+     */
+    public ConfigFile writeAll(File folder) throws IOException {
+        File outputFolder = new File(folder, "output");
+        Files.createDirectories(outputFolder.toPath());
+        File workbookFile = new File(folder, WORKBOOK_NAME);
+        File templateFile = new File(folder, TEMPLATE_NAME);
+        writeWorkbook(workbookFile);
+        writeTemplate(templateFile);
+
+        ConfigFile config = createConfig();
+        config.setExcelFile(workbookFile.getAbsolutePath());
+        config.setPptFile(templateFile.getAbsolutePath());
+        config.setOutputFolder(outputFolder.getAbsolutePath());
+        Files.writeString(new File(folder, CONFIG_NAME).toPath(), new GsonBuilder().setPrettyPrinting().create().toJson(config));
+        return config;
+    }
+
+    /**
+     * @return config with one title per block, files and output folder not set
+     */
+    public ConfigFile createConfig() {
+        List<ConfigFile.Config> configs = new ArrayList<>();
+        for (int block = 0; block < spec.blockCount(); block++) {
+            ConfigFile.Position position = new ConfigFile.Position();
+            position.setX(20);
+            position.setY(60);
+            position.setWidth(900);
+            position.setHeight(400);
+            ConfigFile.Config config = new ConfigFile.Config();
+            config.setTitle(getTitle(block));
+            config.setSlideMonth(2 + block * 2);
+            config.setSlideYTD(3 + block * 2);
+            config.setTextSize(9);
+            config.setPosition(position);
+            configs.add(config);
+        }
+        ConfigFile configFile = new ConfigFile();
+        configFile.setExcelSuffix(" - Synthetic");
+        configFile.setWorkerCount(1);
+        configFile.setConfig(configs);
+        configFile.compile();
+        return configFile;
+    }
+
+    public void writeWorkbook(File file) throws IOException {
+        Random random = new Random(SEED);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            List<XSSFCellStyle> styles = createStyles(workbook, random);
+            for (int region = 0; region < spec.regionCount(); region++) {
+                writeSheet(workbook.createSheet(getRegion(region) + " - MOIS"), styles, random);
+                writeSheet(workbook.createSheet(getRegion(region) + " - YTD"), styles, random);
+            }
+            workbook.write(out);
+        }
+    }
+
+    /**
+     * Template with a cover slide, then a month and a YTD slide per block.
+     */
+    public void writeTemplate(File file) throws IOException {
+        try (XMLSlideShow ppt = new XMLSlideShow(); OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            int slideCount = 1 + spec.blockCount() * 2;
+            for (int i = 0; i < slideCount; i++) {
+                ppt.createSlide().createTextBox().setText("Slide " + (i + 1));
+            }
+            ppt.write(out);
+        }
+    }
+
+    public static String getRegion(int region) {
+        return "REGION_" + region;
+    }
+
+    public static String getTitle(int block) {
+        return "Synthetic table " + block + " :";
+    }
+
+    private void writeSheet(XSSFSheet sheet, List<XSSFCellStyle> styles, Random random) {
+        int rowIndex = 0;
+        for (int block = 0; block < spec.blockCount(); block++) {
+            sheet.createRow(rowIndex++).createCell(0).setCellValue(getTitle(block));
+            for (int row = 0; row < spec.rowCount(); row++) {
+                int sheetRow = rowIndex++;
+                XSSFRow xssfRow = sheet.createRow(sheetRow);
+                xssfRow.createCell(0).setCellValue(row == spec.rowCount() - 1 ? "RRF" : "Line " + row);
+                for (int column = 1; column < spec.columnCount(); column++) {
+                    XSSFCellStyle style = styles.get(random.nextInt(styles.size()));
+                    xssfRow.createCell(column).setCellValue(random.nextDouble() * 100_000);
+                    xssfRow.getCell(column).setCellStyle(style);
+                    if (column + 1 < spec.columnCount() && random.nextDouble() < spec.mergeDensity()) {
+                        column++;
+                        xssfRow.createCell(column).setCellStyle(style);
+                        sheet.addMergedRegionUnsafe(new CellRangeAddress(sheetRow, sheetRow, column - 1, column));
+                    }
+                }
+            }
+        }
+        //The last row of a sheet is not read
+        sheet.createRow(rowIndex).createCell(0).setCellValue("END");
+        for (int column = 0; column < spec.columnCount(); column++) {
+            sheet.setColumnWidth(column, (column == 0 ? 24 : 12) * 256);
+        }
+    }
+
+    private List<XSSFCellStyle> createStyles(XSSFWorkbook workbook, Random random) {
+        DefaultIndexedColorMap colorMap = new DefaultIndexedColorMap();
+        List<XSSFCellStyle> styles = new ArrayList<>();
+        for (int i = 0; i < spec.styleCount(); i++) {
+            XSSFFont font = workbook.createFont();
+            font.setFontName(i % 2 == 0 ? "Arial" : "Calibri");
+            font.setBold(random.nextBoolean());
+            font.setItalic(random.nextInt(4) == 0);
+            font.setColor(new XSSFColor(new Color(random.nextInt(0xFFFFFF)), colorMap));
+
+            XSSFCellStyle style = workbook.createCellStyle();
+            style.setFont(font);
+            style.setFillForegroundColor(new XSSFColor(new Color(random.nextInt(0xFFFFFF)), colorMap));
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            style.setAlignment(HorizontalAlignment.values()[random.nextInt(4)]);
+            style.setVerticalAlignment(VerticalAlignment.values()[random.nextInt(3)]);
+            style.setDataFormat(workbook.createDataFormat().getFormat(DATA_FORMATS[i % DATA_FORMATS.length]));
+            XSSFColor borderColor = new XSSFColor(new Color(random.nextInt(0xFFFFFF)), colorMap);
+            if (random.nextBoolean()) {
+                style.setBorderTop(BorderStyle.THIN);
+                style.setTopBorderColor(borderColor);
+                style.setBorderBottom(BorderStyle.THIN);
+                style.setBottomBorderColor(borderColor);
+            }
+            if (random.nextBoolean()) {
+                style.setBorderLeft(BorderStyle.THIN);
+                style.setLeftBorderColor(borderColor);
+                style.setBorderRight(BorderStyle.THIN);
+                style.setRightBorderColor(borderColor);
+            }
+            styles.add(style);
+        }
+        return styles;
+    }
+}
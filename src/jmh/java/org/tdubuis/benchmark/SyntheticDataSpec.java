@@ -0,0 +1,36 @@
+package org.tdubuis.benchmark;
+
+/**
+ * Shape of the synthetic workbook and template.
+ * @param regionCount number of regions, each one has a MOIS and a YTD sheet
+ * @param blockCount number of config titles (tables) per sheet
+ * @param rowCount data rows per table, the "RRF" row included
+ * @param columnCount columns per table
+ * @param mergeDensity probability for a cell to start an horizontal merge of 2 cells
+ * @param styleCount number of distinct cell styles used by the data cells
+ */
+public record SyntheticDataSpec(int regionCount, int blockCount, int rowCount, int columnCount, double mergeDensity, int styleCount) {
+
+    public SyntheticDataSpec {
+        if (regionCount < 1 || blockCount < 1 || rowCount < 1 || columnCount < 1 || styleCount < 1) {
+            throw new IllegalArgumentException("Counts must be positive");
+        }
+        if (mergeDensity < 0 || mergeDensity > 1) {
+            throw new IllegalArgumentException("Merge density must be between 0 and 1");
+        }
+    }
+
+    public static SyntheticDataSpec parse(String spec) {
+        String[] values = spec.split(",");
+        if (values.length != 6) {
+            throw new IllegalArgumentException("Spec must be regions,blocks,rows,columns,mergeDensity,styles : " + spec);
+        }
+        return new SyntheticDataSpec(Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()), Integer.parseInt(values[2].trim()),
+                Integer.parseInt(values[3].trim()), Double.parseDouble(values[4].trim()), Integer.parseInt(values[5].trim()));
+    }
+
+    @Override
+    public String toString() {
+        return regionCount + "," + blockCount + "," + rowCount + "," + columnCount + "," + mergeDensity + "," + styleCount;
+    }
+}
@@ -0,0 +1,53 @@
+package org.tdubuis.benchmark;
+
+import lombok.Getter;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.reader.ExcelReader;
+import org.tdubuis.template.TemplateSnapshot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic files written in a temporary folder for a benchmark trial, with the config, the read data and the
+ * template snapshot ready to use. The folder is deleted on close.
+ */
+@Getter
+public class SyntheticFixture implements Closeable {
+    private final Path folder;
+    private final ConfigFile config;
+    private final File workbookFile;
+    private final File templateFile;
+    private final Map<String, ExcelData> excelDataMap;
+    private final TemplateSnapshot template;
+
+    public SyntheticFixture(SyntheticDataSpec spec) throws IOException, InvalidFormatException {
+        folder = Files.createTempDirectory("rex-benchmark");
+        config = new SyntheticDataGenerator(spec).writeAll(folder.toFile());
+        workbookFile = new File(config.getExcelFile());
+        templateFile = new File(config.getPptFile());
+        excelDataMap = ExcelReader.forConfig(config).read(workbookFile);
+        template = TemplateSnapshot.load(templateFile);
+    }
+
+    public ExcelData getFirstRegion() {
+        return excelDataMap.get(SyntheticDataGenerator.getRegion(0));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.tdubuis.benchmark;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTable;
+import org.apache.poi.xslf.usermodel.XSLFTableRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.generator.DirectTableGenerator;
+import org.tdubuis.generator.TableBorders;
+import org.tdubuis.generator.XslfTableGenerator;
+
+import java.io.IOException;
+
+/**
+ * Stages of the build of one table : border fix-ups, XSLF cell copy and direct XML emission.
+ * The default spec is a wide pivot-like table, 250 columns with many merges.
+ */
+@State(Scope.Benchmark)
+public class TableBenchmark extends BenchmarkDefaults {
+    @Param({"1,1,40,250,0.2,30"})
+    public String spec;
+
+    private SyntheticFixture fixture;
+    private TableData table;
+    private CompiledConfig.Anchor anchor;
+    private TableBorders borders;
+    private XMLSlideShow scratchPpt;
+    private XSLFSlide scratchSlide;
+    private XSLFTable emptyTable;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidFormatException {
+        fixture = new SyntheticFixture(SyntheticDataSpec.parse(spec));
+        table = fixture.getFirstRegion().getDataMapMonth().get(SyntheticDataGenerator.getTitle(0));
+        anchor = fixture.getConfig().getCompiled().getEntries().get(0).anchor();
+        borders = new TableBorders(table);
+        scratchPpt = new XMLSlideShow();
+        scratchSlide = scratchPpt.createSlide();
+    }
+
+    //A fresh table for each copy, its creation is not measured
+    @Setup(Level.Invocation)
+    public void createEmptyTable() {
+        if (emptyTable != null) {
+            scratchSlide.removeShape(emptyTable);
+        }
+        emptyTable = scratchSlide.createTable();
+        for (int row = 0; row < table.getRowCount(); row++) {
+            XSLFTableRow pptRow = emptyTable.addRow();
+            for (int column = 0; column < table.getColumnCount(); column++) {
+                pptRow.addCell();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        scratchPpt.close();
+        fixture.close();
+    }
+
+    @Benchmark
+    public TableBorders borderFixUps() {
+        return new TableBorders(table);
+    }
+
+    @Benchmark
+    public XSLFTable copyExcelCellToPptCell() {
+        for (int row = 0; row < table.getRowCount(); row++) {
+            XSLFTableRow pptRow = emptyTable.getRows().get(row);
+            for (int column = 0; column < table.getColumnCount(); column++) {
+                XslfTableGenerator.copyExcelCellToPptCell(pptRow.getCells().get(column), table.getText(row, column), table.getStyle(row, column));
+            }
+        }
+        return emptyTable;
+    }
+
+    @Benchmark
+    public byte[] emitTableXml() throws IOException {
+        return DirectTableGenerator.emit(table, borders, anchor, 100);
+    }
+}
@@ -0,0 +1,99 @@
+package org.tdubuis.batch;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.Data;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * List of conversion jobs run by one process. Each job uses a config file, the fields set on the job override the
+ * ones of the config (excel file, template, output folder, suffix, incremental, shard, work queue).
+ */
+@Data
+public class BatchDescriptor {
+    private static final Logger logger = LogManager.getLogger(BatchDescriptor.class);
+
+    private Integer parallelJobs;
+    private Integer workerCount;
+    private Integer writerCount;
+    private Integer memoryBudgetMb;
+    private List<Job> jobs;
+
+    @Data
+    public static class Job {
+        private String name;
+        private String config;
+        private String excelFile;
+        private String pptFile;
+        private String outputFolder;
+        private String excelSuffix;
+        private Boolean incremental;
+        /** Shard i/N of the regions generated by this process */
+        private String shard;
+        private Boolean workQueue;
+    }
+
+    /**
+     * @return number of jobs read and generated at the same time, 2 when not set, all cores when 0 or less
+     */
+    public int getParallelJobsOrDefault() {
+        if (parallelJobs == null) {
+            return 2;
+        }
+        return parallelJobs > 0 ? parallelJobs : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return number of threads generating region decks, shared by all the jobs, all cores when not set or 0 or less
+     */
+    public int getWorkerCountOrDefault() {
+        return workerCount != null && workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return number of threads writing region decks, shared by all the jobs, 1 when not set or 0 or less
+     */
+    public int getWriterCountOrDefault() {
+        return writerCount != null && writerCount > 0 ? writerCount : 1;
+    }
+
+    /**
+     * @return heap budget of the regions in flight, shared by all the jobs, 0 (60% of the heap) when not set
+     */
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetMb != null && memoryBudgetMb > 0 ? memoryBudgetMb * 1024L * 1024L : 0;
+    }
+
+    public static BatchDescriptor parseBatchFile(File file) {
+        try {
+            BatchDescriptor batch = new Gson().fromJson(Files.readString(file.toPath()), BatchDescriptor.class);
+            if (batch == null || batch.getJobs() == null || batch.getJobs().isEmpty()) {
+                logger.error("No job in batch file {}", file.getAbsolutePath());
+                return null;
+            }
+            Set<String> names = new HashSet<>();
+            for (int i = 0; i < batch.getJobs().size(); i++) {
+                Job job = batch.getJobs().get(i);
+                if (job.getName() == null) {
+                    job.setName("job-" + (i + 1));
+                }
+                if (!names.add(job.getName())) {
+                    logger.error("Job name {} used twice in batch file {}", job.getName(), file.getAbsolutePath());
+                    return null;
+                }
+            }
+            return batch;
+        } catch (IOException | JsonParseException e) {
+            logger.error("Error when parsing batch file", e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package org.tdubuis.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.convert.ConversionResult;
+import org.tdubuis.convert.PipelineExecutors;
+import org.tdubuis.convert.TemplateCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run the jobs of a {@link BatchDescriptor} in one JVM.
+ * Config files are parsed and compiled once, templates are loaded once ({@link TemplateCache}) and the cell formatters
+ * are shared by every job (see {@link JobRunner}). Jobs are read on parallelJobs threads, the largest workbooks first,
+ * and all their regions are generated on a single pool of workerCount threads and written on a single pool of
+ * writerCount threads, within one heap budget.
+ */
+public class BatchRunner {
+    private static final Logger logger = LogManager.getLogger(BatchRunner.class);
+
+    private final TemplateCache templateCache;
+
+    public BatchRunner(TemplateCache templateCache) {
+        this.templateCache = templateCache;
+    }
+
+    /**
+     * Result of a job, error is set when the job failed before generating its regions.
+     */
+    public record JobOutcome(ConversionResult result, Throwable error) {
+    }
+
+    /**
+     * @return outcome by job name, in the order of the descriptor
+     */
+    public Map<String, JobOutcome> run(BatchDescriptor batch) {
+        PipelineExecutors executors = PipelineExecutors.create(batch.getWorkerCountOrDefault(), batch.getWriterCountOrDefault(), batch.getMemoryBudgetBytes());
+        JobRunner jobRunner = new JobRunner(templateCache, executors, batch.getWorkerCountOrDefault(), batch.getWriterCountOrDefault());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService jobExecutor = Executors.newFixedThreadPool(Math.min(batch.getParallelJobsOrDefault(), batch.getJobs().size()), runnable -> {
+            Thread thread = new Thread(runnable, "batch-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            //Longest jobs first, the small ones fill the gaps at the end
+            Map<BatchDescriptor.Job, Long> excelFileSizes = new HashMap<>();
+            batch.getJobs().forEach(job -> excelFileSizes.put(job, getExcelFileSize(jobRunner, job)));
+            List<BatchDescriptor.Job> jobs = new ArrayList<>(batch.getJobs());
+            jobs.sort(Comparator.comparing(excelFileSizes::get, Comparator.reverseOrder()));
+
+            Map<String, Future<ConversionResult>> futures = new HashMap<>();
+            for (BatchDescriptor.Job job : jobs) {
+                futures.put(job.getName(), jobExecutor.submit(() -> jobRunner.run(job)));
+            }
+
+            Map<String, JobOutcome> outcomes = new LinkedHashMap<>();
+            for (BatchDescriptor.Job job : batch.getJobs()) {
+                try {
+                    outcomes.put(job.getName(), new JobOutcome(futures.get(job.getName()).get(), null));
+                } catch (ExecutionException e) {
+                    logger.error("Job {} failed", job.getName(), e.getCause());
+                    outcomes.put(job.getName(), new JobOutcome(null, e.getCause()));
+                }
+            }
+            return outcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running batch", e);
+        } finally {
+            jobExecutor.shutdownNow();
+            executors.close();
+        }
+    }
+
+    private static long getExcelFileSize(JobRunner jobRunner, BatchDescriptor.Job job) {
+        try {
+            String excelFile = jobRunner.resolveConfig(job).getExcelFile();
+            return excelFile == null ? 0 : new File(excelFile).length();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.tdubuis.batch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.convert.ConversionControl;
+import org.tdubuis.convert.ConversionResult;
+import org.tdubuis.convert.Converter;
+import org.tdubuis.convert.PipelineExecutors;
+import org.tdubuis.convert.TemplateCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run single jobs with the caches of a long-lived process : config files parsed and compiled once (parsed again when
+ * the file changes), templates from a {@link TemplateCache}, regions generated and written on shared
+ * {@link PipelineExecutors}.
+ * Jobs writing in the same output folder run one after the other (run report and incremental manifest).
+ * Thread-safe.
+ */
+public class JobRunner {
+    private static final Logger logger = LogManager.getLogger(JobRunner.class);
+
+    private final TemplateCache templateCache;
+    private final PipelineExecutors executors;
+    private final int workerCount;
+    private final int writerCount;
+    private final Map<String, CachedConfig> configs = new ConcurrentHashMap<>();
+    private final Map<String, Object> outputFolderLocks = new ConcurrentHashMap<>();
+
+    private record CachedConfig(long lastModified, ConfigFile config) {
+    }
+
+    public JobRunner(TemplateCache templateCache, PipelineExecutors executors, int workerCount, int writerCount) {
+        this.templateCache = templateCache;
+        this.executors = executors;
+        this.workerCount = workerCount;
+        this.writerCount = writerCount;
+    }
+
+    public ConversionResult run(BatchDescriptor.Job job) throws IOException, InvalidFormatException {
+        return run(job, new ConversionControl());
+    }
+
+    public ConversionResult run(BatchDescriptor.Job job, ConversionControl control) throws IOException, InvalidFormatException {
+        ConfigFile config = resolveConfig(job);
+        String error = Converter.checkFiles(config);
+        if (error != null) {
+            throw new IOException(error);
+        }
+
+        Object lock = outputFolderLocks.computeIfAbsent(new File(config.getOutputFolder()).getCanonicalPath(), folder -> new Object());
+        synchronized (lock) {
+            logger.info("Start job {} : {}", job.getName(), config.getExcelFile());
+            ConversionResult result = new Converter(config, executors, templateCache, control).convert();
+            logger.info("End job {} : {} decks, {} skipped, {} failed in {} ms{}", job.getName(), result.outputFiles().size(),
+                    result.skippedRegions(), result.failedRegions().size(), Math.round(result.durationMs()), result.cancelled() ? ", cancelled" : "");
+            return result;
+        }
+    }
+
+    /**
+     * @return copy of the config file of the job, with the overrides of the job
+     */
+    public ConfigFile resolveConfig(BatchDescriptor.Job job) throws IOException {
+        if (job.getConfig() == null) {
+            throw new IOException("No config file for job " + job.getName());
+        }
+        File configFile = new File(job.getConfig()).getCanonicalFile();
+        long lastModified = configFile.lastModified();
+        CachedConfig cached = configs.compute(configFile.getPath(), (path, previous) -> {
+            if (previous != null && previous.lastModified() == lastModified) {
+                return previous;
+            }
+            ConfigFile parsed = ConfigFile.parseConfigFile(configFile);
+            return parsed == null ? null : new CachedConfig(lastModified, parsed);
+        });
+        if (cached == null) {
+            throw new IOException("Could not load config file: " + job.getConfig());
+        }
+
+        ConfigFile config = cached.config().copy();
+        config.setWorkerCount(workerCount);
+        config.setWriterCount(writerCount);
+        if (job.getExcelFile() != null) {
+            config.setExcelFile(job.getExcelFile());
+        }
+        if (job.getPptFile() != null) {
+            config.setPptFile(job.getPptFile());
+        }
+        if (job.getOutputFolder() != null) {
+            config.setOutputFolder(job.getOutputFolder());
+        }
+        if (job.getExcelSuffix() != null) {
+            config.setExcelSuffix(job.getExcelSuffix());
+        }
+        if (job.getIncremental() != null) {
+            config.setIncremental(job.getIncremental());
+        }
+        if (job.getShard() != null) {
+            config.setShard(job.getShard());
+        }
+        if (job.getWorkQueue() != null) {
+            config.setWorkQueue(job.getWorkQueue());
+        }
+        return config;
+    }
+}
@@ -0,0 +1,197 @@
+package org.tdubuis.config;
+
+import lombok.Getter;
+import org.apache.poi.util.Units;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Config entries of a {@link ConfigFile} checked and resolved once : entries by title and by slide number, anchors
+ * with their EMU values, and the {@link TitleMatcher} of the titles.
+ * Everything that can be checked without the template and the workbook is checked by {@link #compile}, see
+ * {@link #checkSlideCount} for the template. Immutable, can be shared between threads.
+ */
+public class CompiledConfig {
+    /**
+     * One config entry, index being its position in the config (the first matching title wins).
+     * textSize is checked and passed to the generators but not applied : like the first version of the tool, the
+     * tables are written in 9 pt whatever the config says.
+     */
+    public record Entry(int index, String title, int slideMonth, int slideYTD, int textSize, Anchor anchor) {
+    }
+
+    /**
+     * Position of a table on its slide, in points.
+     */
+    @Getter
+    public static final class Anchor {
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final long xEmu;
+        private final long yEmu;
+        private final long widthEmu;
+        private final long heightEmu;
+
+        public Anchor(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.xEmu = Units.toEMU(x);
+            this.yEmu = Units.toEMU(y);
+            this.widthEmu = Units.toEMU(width);
+            this.heightEmu = Units.toEMU(height);
+        }
+
+        public Rectangle toRectangle() {
+            return new Rectangle(x, y, width, height);
+        }
+    }
+
+    @Getter private final List<Entry> entries;
+    @Getter private final TitleMatcher titleMatcher;
+    private final Map<String, Entry> byTitle;
+    private final Map<Integer, Entry> bySlide;
+    @Getter private final int maxSlide;
+
+    private CompiledConfig(List<Entry> entries, Map<String, Entry> byTitle, Map<Integer, Entry> bySlide) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.byTitle = Collections.unmodifiableMap(byTitle);
+        this.bySlide = Collections.unmodifiableMap(bySlide);
+        this.titleMatcher = new TitleMatcher(entries.stream().map(Entry::title).toList());
+        this.maxSlide = bySlide.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * @throws IllegalArgumentException listing every invalid entry
+     */
+    public static CompiledConfig compile(List<ConfigFile.Config> config) {
+        if (config == null || config.isEmpty()) {
+            throw new IllegalArgumentException("Invalid config : no config entry");
+        }
+        List<String> errors = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        Map<String, Entry> byTitle = new LinkedHashMap<>();
+        Map<Integer, Entry> bySlide = new HashMap<>();
+        for (int i = 0; i < config.size(); i++) {
+            ConfigFile.Config source = config.get(i);
+            String name = "entry " + (i + 1);
+            if (source == null) {
+                errors.add(name + " is empty");
+                continue;
+            }
+            if (source.getTitle() == null || source.getTitle().isBlank()) {
+                errors.add(name + " has no title");
+                continue;
+            }
+            name += " \"" + source.getTitle() + "\"";
+            int errorCount = errors.size();
+            checkPositive(errors, name, "slideMonth", source.getSlideMonth());
+            checkPositive(errors, name, "slideYTD", source.getSlideYTD());
+            checkPositive(errors, name, "textSize", source.getTextSize());
+            ConfigFile.Position position = source.getPosition();
+            if (position == null) {
+                errors.add(name + " has no position");
+            } else {
+                checkNotNegative(errors, name, "position.x", position.getX());
+                checkNotNegative(errors, name, "position.y", position.getY());
+                checkPositive(errors, name, "position.width", position.getWidth());
+                checkPositive(errors, name, "position.height", position.getHeight());
+            }
+            if (errors.size() > errorCount) {
+                continue;
+            }
+
+            Entry entry = new Entry(i, source.getTitle(), source.getSlideMonth(), source.getSlideYTD(), source.getTextSize(),
+                    new Anchor(position.getX(), position.getY(), position.getWidth(), position.getHeight()));
+            if (byTitle.putIfAbsent(entry.title(), entry) != null) {
+                errors.add(name + " : same title as entry " + (byTitle.get(entry.title()).index() + 1));
+                continue;
+            }
+            //A title containing an earlier title is never found, the earlier one wins
+            for (Entry previous : entries) {
+                if (entry.title().contains(previous.title())) {
+                    errors.add(name + " is never found : its title contains the title of entry " + (previous.index() + 1) + " \"" + previous.title() + "\"");
+                }
+            }
+            putSlide(errors, bySlide, entry, entry.slideMonth());
+            if (entry.slideYTD() == entry.slideMonth()) {
+                errors.add(name + " : slideMonth and slideYTD are both slide " + entry.slideMonth());
+            } else {
+                putSlide(errors, bySlide, entry, entry.slideYTD());
+            }
+            entries.add(entry);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid config : " + String.join(", ", errors));
+        }
+        return new CompiledConfig(entries, byTitle, bySlide);
+    }
+
+    /**
+     * @return the entry of the title, null when the title is not in the config
+     */
+    public Entry getByTitle(String title) {
+        return byTitle.get(title);
+    }
+
+    /**
+     * @return the entry having a table on the slide (month or YTD), null when there is none
+     */
+    public Entry getBySlide(int slideNumber) {
+        return bySlide.get(slideNumber);
+    }
+
+    /**
+     * @return the first title of the config contained in the text, null if there is none
+     */
+    public String findFirstTitle(String text) {
+        return titleMatcher.findFirstTitle(text);
+    }
+
+    /**
+     * @return why the entries do not fit in a template of slideCount slides, null when they fit
+     */
+    public String checkSlideCount(int slideCount) {
+        if (maxSlide <= slideCount) {
+            return null;
+        }
+        List<String> errors = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.slideMonth() > slideCount) {
+                errors.add("\"" + entry.title() + "\" slideMonth " + entry.slideMonth());
+            }
+            if (entry.slideYTD() > slideCount) {
+                errors.add("\"" + entry.title() + "\" slideYTD " + entry.slideYTD());
+            }
+        }
+        return "Slides past the " + slideCount + " slides of the template : " + String.join(", ", errors);
+    }
+
+    private static void putSlide(List<String> errors, Map<Integer, Entry> bySlide, Entry entry, int slideNumber) {
+        Entry previous = bySlide.putIfAbsent(slideNumber, entry);
+        if (previous != null) {
+            errors.add("entry " + (entry.index() + 1) + " \"" + entry.title() + "\" : slide " + slideNumber + " already used by entry " + (previous.index() + 1) + " \"" + previous.title() + "\"");
+        }
+    }
+
+    private static void checkPositive(List<String> errors, String name, String field, Integer value) {
+        if (value == null || value < 1) {
+            errors.add(name + " : " + field + " must be set and positive (" + value + ")");
+        }
+    }
+
+    private static void checkNotNegative(List<String> errors, String name, String field, Integer value) {
+        if (value == null || value < 0) {
+            errors.add(name + " : " + field + " must be set and not negative (" + value + ")");
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.tdubuis.config;
 
 import com.google.gson.Gson;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -9,33 +12,173 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 
 @Data
 public class ConfigFile {
     private static final Logger logger = LogManager.getLogger(ConfigFile.class);
+    private static final Gson GSON = new Gson();
 
 
     private String excelFile;
     private String pptFile;
     private String outputFolder;
     private String excelSuffix;
+    private Integer workerCount;
+    private Integer writerCount;
+    private Integer pipelineQueueCapacity;
+    private Integer memoryBudgetMb;
+    private boolean streamingExcelReader;
+    private Integer readerThreads;
+    private String extractCacheFolder;
+    private TableGeneratorType tableGenerator;
+    private boolean incremental;
+    private String shard;
+    private boolean workQueue;
+    private Integer claimTimeoutMinutes;
+    private Integer regionTimeoutSeconds;
+    private Integer compressionLevel;
+    private MediaPackaging mediaPackaging;
     private List<Config> config;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private transient volatile CompiledConfig compiled;
 
-    public String isAndReturnConfigTitle(String text) {
-        for (Config c : config) {
-            if (text.contains(c.title)) {
-                return c.title;
-            }
+    /**
+     * @return number of threads generating region decks, 1 (sequential) when not set, all cores when 0 or less
+     */
+    public int getWorkerCountOrDefault() {
+        if (workerCount == null) {
+            return 1;
         }
-        return null;
+        return workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
     }
-    public Config getConfig(String title) {
-        for (Config c : config) {
-            if (c.title.equals(title)) {
-                return c;
-            }
+
+    /**
+     * @return number of threads serializing and writing region decks, 1 when not set or 0 or less
+     */
+    public int getWriterCountOrDefault() {
+        return writerCount != null && writerCount > 0 ? writerCount : 1;
+    }
+
+    /**
+     * @return regions allowed in each pipeline stage before the previous stage waits, twice the workers when not set
+     */
+    public int getPipelineQueueCapacityOrDefault() {
+        return pipelineQueueCapacity != null && pipelineQueueCapacity > 0 ? pipelineQueueCapacity : 2 * getWorkerCountOrDefault();
+    }
+
+    /**
+     * @return number of threads extracting sheets with the streaming reader, 1 when not set, all cores when 0 or less
+     */
+    public int getReaderThreadsOrDefault() {
+        if (readerThreads == null) {
+            return 1;
         }
-        return null;
+        return readerThreads > 0 ? readerThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return heap budget of the regions in flight, 0 (60% of the heap) when not set or 0 or less
+     */
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetMb != null && memoryBudgetMb > 0 ? memoryBudgetMb * 1024L * 1024L : 0;
+    }
+
+    /**
+     * @return way tables are written in the slides, {@link TableGeneratorType#XSLF} when not set
+     */
+    public TableGeneratorType getTableGeneratorOrDefault() {
+        return tableGenerator == null ? TableGeneratorType.XSLF : tableGenerator;
+    }
+
+    /**
+     * @return deflate level of the output decks, -1 (zlib default) when not set
+     */
+    public int getCompressionLevelOrDefault() {
+        return compressionLevel == null ? Deflater.DEFAULT_COMPRESSION : compressionLevel;
+    }
+
+    /**
+     * @return how the template media are written in the output decks, {@link MediaPackaging#COPY} when not set
+     */
+    public MediaPackaging getMediaPackagingOrDefault() {
+        return mediaPackaging == null ? MediaPackaging.COPY : mediaPackaging;
+    }
+
+    /**
+     * @return minutes after which a work queue claim of another worker is taken over, 30 when not set
+     */
+    public int getClaimTimeoutMinutesOrDefault() {
+        return claimTimeoutMinutes != null && claimTimeoutMinutes > 0 ? claimTimeoutMinutes : 30;
+    }
+
+    /**
+     * @return time budget of the extraction of one sheet and of the generation of one region deck, 0 (no budget) when
+     * not set or 0 or less
+     */
+    public long getRegionTimeoutNanos() {
+        return regionTimeoutSeconds != null && regionTimeoutSeconds > 0 ? TimeUnit.SECONDS.toNanos(regionTimeoutSeconds) : 0;
+    }
+
+    /**
+     * @return copy sharing the config entries and their compiled form, to override the files or settings of one job
+     */
+    public ConfigFile copy() {
+        //Every serialized field is copied, the entries and their compiled form are then shared
+        ConfigFile copy = GSON.fromJson(GSON.toJsonTree(this), ConfigFile.class);
+        copy.config = config;
+        copy.compiled = compiled;
+        return copy;
+    }
+
+    public String isAndReturnConfigTitle(String text) {
+        return getCompiled().findFirstTitle(text);
+    }
+
+    /**
+     * Check and compile the config entries, to call again if the entries change.
+     * @throws IllegalArgumentException listing every invalid entry
+     */
+    public CompiledConfig compile() {
+        compiled = CompiledConfig.compile(config);
+        return compiled;
+    }
+
+    /**
+     * @return the compiled config entries, compiled on first use when the config was not parsed from a file
+     */
+    public CompiledConfig getCompiled() {
+        CompiledConfig current = compiled;
+        return current == null ? compile() : current;
+    }
+
+    /**
+     * @return the config entry of the title as read from the file, null when the title is not in the config. The
+     * checked entry is {@code getCompiled().getByTitle(title)}
+     */
+    public Config getConfig(String title) {
+        CompiledConfig.Entry entry = getCompiled().getByTitle(title);
+        return entry == null ? null : config.get(entry.index());
+    }
+
+    public enum TableGeneratorType {
+        /** Build the table with the POI XSLF API, then copy it in the slide */
+        XSLF,
+        /** Stream the table XML and splice it in the slide */
+        DIRECT
+    }
+
+    /**
+     * Packaging of the media parts (png, jpg, emf...) copied unchanged from the template.
+     */
+    public enum MediaPackaging {
+        /** Deflate them again at the compression level, for the smallest decks */
+        DEFLATE,
+        /** Store them uncompressed, no CPU spent on images that do not shrink */
+        STORE,
+        /** Copy the compressed bytes of the template entry, no CPU and the size of the template */
+        COPY
     }
 
     @Data
@@ -58,9 +201,16 @@ public class ConfigFile {
     public static ConfigFile parseConfigFile(File file) {
         try {
             String fileContent = Files.readString(file.toPath());
-            return new Gson().fromJson(fileContent, ConfigFile.class);
+            ConfigFile configFile = GSON.fromJson(fileContent, ConfigFile.class);
+            if (configFile == null) {
+                throw new IllegalArgumentException("empty file");
+            }
+            configFile.compile();
+            return configFile;
         }catch (IOException e) {
             logger.error("Error when parsing config file", e);
+        } catch (IllegalArgumentException e) {
+            logger.error("Error in config file {} : {}", file.getName(), e.getMessage());
         }
         return null;
     }
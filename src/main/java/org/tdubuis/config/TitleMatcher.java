@@ -0,0 +1,127 @@
+package org.tdubuis.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over the config titles : finds in one pass over the text every title it contains.
+ * When several titles are found, the first one of the config wins (same result as testing text.contains(title) in
+ * config order). Transitions are sorted char arrays searched by dichotomy, so a lookup never boxes a character.
+ * Immutable, can be shared between threads.
+ */
+public class TitleMatcher {
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final int NO_STATE = -1;
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_STATES = new int[0];
+
+    private final List<String> titles;
+    //Transitions of each state : characters in ascending order, and the state reached by each one
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+    private final int[] fail;
+    //Lowest title index ending at each state, following the fail links
+    private final int[] match;
+
+    public TitleMatcher(List<String> titles) {
+        this.titles = List.copyOf(titles);
+
+        //Trie, at most one state by title character plus the root
+        int maxStates = 1 + this.titles.stream().mapToInt(String::length).sum();
+        char[][] chars = new char[maxStates][];
+        int[][] states = new int[maxStates][];
+        int[] ownMatch = new int[maxStates];
+        Arrays.fill(ownMatch, NO_MATCH);
+        chars[0] = NO_CHARS;
+        states[0] = NO_STATES;
+        int stateCount = 1;
+        for (int titleIndex = 0; titleIndex < this.titles.size(); titleIndex++) {
+            int state = 0;
+            for (char c : this.titles.get(titleIndex).toCharArray()) {
+                int position = Arrays.binarySearch(chars[state], c);
+                if (position >= 0) {
+                    state = states[state][position];
+                    continue;
+                }
+                int next = stateCount++;
+                chars[next] = NO_CHARS;
+                states[next] = NO_STATES;
+                int insertion = -position - 1;
+                chars[state] = insert(chars[state], insertion, c);
+                states[state] = insert(states[state], insertion, next);
+                state = next;
+            }
+            ownMatch[state] = Math.min(ownMatch[state], titleIndex);
+        }
+        transitionChars = Arrays.copyOf(chars, stateCount);
+        transitionStates = Arrays.copyOf(states, stateCount);
+
+        //Fail links, breadth first so the fail state is always computed before
+        fail = new int[stateCount];
+        match = new int[stateCount];
+        match[0] = ownMatch[0];
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        for (int child : transitionStates[0]) {
+            fail[child] = 0;
+            match[child] = Math.min(ownMatch[child], match[0]);
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionStates[state][i];
+                int failState = fail[state];
+                while (failState != 0 && next(failState, c) == NO_STATE) {
+                    failState = fail[failState];
+                }
+                int failChild = next(failState, c);
+                fail[child] = failChild != NO_STATE && failChild != child ? failChild : 0;
+                match[child] = Math.min(ownMatch[child], match[fail[child]]);
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * @return the first title of the config contained in the text, null if there is none
+     */
+    public String findFirstTitle(String text) {
+        int best = match[0];
+        int state = 0;
+        for (int i = 0; i < text.length() && best != 0; i++) {
+            char c = text.charAt(i);
+            int next = next(state, c);
+            while (next == NO_STATE && state != 0) {
+                state = fail[state];
+                next = next(state, c);
+            }
+            state = next == NO_STATE ? 0 : next;
+            best = Math.min(best, match[state]);
+        }
+        return best == NO_MATCH ? null : titles.get(best);
+    }
+
+    private int next(int state, char c) {
+        int position = Arrays.binarySearch(transitionChars[state], c);
+        return position < 0 ? NO_STATE : transitionStates[state][position];
+    }
+
+    private static char[] insert(char[] array, int index, char value) {
+        char[] result = new char[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
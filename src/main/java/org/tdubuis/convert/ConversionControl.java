@@ -0,0 +1,57 @@
+package org.tdubuis.convert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.Consumer;
+
+/**
+ * Handle on a conversion, for its caller : progress listener and cooperative cancellation.
+ * A cancelled conversion stops reading before the next sheet, the regions not written yet are dropped, and the decks
+ * already written are kept (and recorded in the incremental manifest). One control per conversion. Thread-safe.
+ */
+public class ConversionControl {
+    private static final Logger logger = LogManager.getLogger(ConversionControl.class);
+
+    private final Consumer<ConversionProgress> progressListener;
+    private volatile boolean cancelled;
+    private volatile ConversionProgress progress;
+
+    public ConversionControl() {
+        this(null);
+    }
+
+    /**
+     * @param progressListener called each time a region is completed and when the read ends, one call at a time from
+     * the conversion threads, can be null
+     */
+    public ConversionControl(Consumer<ConversionProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return last progress of the conversion, null before it starts reading
+     */
+    public ConversionProgress getProgress() {
+        return progress;
+    }
+
+    void update(ConversionProgress progress) {
+        this.progress = progress;
+        if (progressListener != null) {
+            try {
+                progressListener.accept(progress);
+            } catch (RuntimeException e) {
+                logger.warn("Progress listener failed", e);
+            }
+        }
+    }
+}
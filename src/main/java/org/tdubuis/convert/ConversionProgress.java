@@ -0,0 +1,38 @@
+package org.tdubuis.convert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress of a conversion at one point in time.
+ * @param totalRegions regions to convert : the regions found by the workbook pre-scan (other shards excluded), or the
+ * regions read once the whole workbook is read
+ * @param regionsPerSecond completed regions by second since the start of the conversion
+ * @param etaMs estimated time left, -1 until a region is completed
+ */
+public record ConversionProgress(int totalRegions, int writtenRegions, int skippedRegions, int failedRegions, double elapsedMs, double regionsPerSecond, long etaMs) {
+
+    public int getCompletedRegions() {
+        return writtenRegions + skippedRegions + failedRegions;
+    }
+
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("totalRegions", totalRegions);
+        json.put("completedRegions", getCompletedRegions());
+        json.put("writtenRegions", writtenRegions);
+        json.put("skippedRegions", skippedRegions);
+        json.put("failedRegions", failedRegions);
+        json.put("elapsedMs", Math.round(elapsedMs));
+        json.put("regionsPerSecond", Math.round(regionsPerSecond * 100) / 100d);
+        json.put("etaMs", etaMs);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        String eta = etaMs < 0 ? "unknown" : Math.round(etaMs / 1000d) + " s";
+        return String.format("%d/%d regions (%d written, %d skipped, %d failed), %.2f regions/s, ETA %s",
+                getCompletedRegions(), totalRegions, writtenRegions, skippedRegions, failedRegions, regionsPerSecond, eta);
+    }
+}
@@ -0,0 +1,16 @@
+package org.tdubuis.convert;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one conversion.
+ * @param outputFiles decks written by this conversion
+ * @param skippedRegions regions not generated because unchanged (incremental mode)
+ * @param failedRegions failures by region, a TimeoutException for the regions over the time budget
+ * @param reportFile JSON run report
+ * @param cancelled true when the conversion was cancelled, outputFiles then holds the decks written before
+ */
+public record ConversionResult(List<File> outputFiles, int skippedRegions, Map<String, Throwable> failedRegions, File reportFile, double durationMs, boolean cancelled) {
+}
@@ -0,0 +1,480 @@
+package org.tdubuis.convert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.generator.TableGenerator;
+import org.tdubuis.incremental.RegenerationManifest;
+import org.tdubuis.incremental.RegionFingerprint;
+import org.tdubuis.reader.ExcelReader;
+import org.tdubuis.reader.WorkbookPreScan;
+import org.tdubuis.report.Phase;
+import org.tdubuis.report.PhaseTimer;
+import org.tdubuis.report.RunReport;
+import org.tdubuis.shard.ShardSpec;
+import org.tdubuis.shard.WorkQueue;
+import org.tdubuis.template.PackageOptions;
+import org.tdubuis.template.RegionDeck;
+import org.tdubuis.template.TemplateSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conversion of the workbook of a config into one deck per region, with the template of the config.
+ * The conversion is a pipeline : the reader gives each region as soon as its sheets are read, the region decks are
+ * built on the generator threads, then serialized and written on the writer threads. Bounded {@link StageQueue}s
+ * between the stages keep the memory used by in-flight regions bounded, so a run takes about the time of its slowest
+ * stage. The executors can be shared by several conversions.
+ * The progress is given to the {@link ConversionControl} of the conversion, which can also cancel it. A sheet or a
+ * region over the time budget of the config is skipped and reported, the other regions go on.
+ */
+public class Converter {
+    private static final Logger logger = LogManager.getLogger(Converter.class);
+
+    private final ConfigFile config;
+    private final PipelineExecutors executors;
+    private final TemplateCache templateCache;
+    private final ConversionControl control;
+
+    public Converter(ConfigFile config, PipelineExecutors executors, TemplateCache templateCache) {
+        this(config, executors, templateCache, new ConversionControl());
+    }
+
+    public Converter(ConfigFile config, PipelineExecutors executors, TemplateCache templateCache, ConversionControl control) {
+        this.config = config;
+        this.executors = executors;
+        this.templateCache = templateCache;
+        this.control = control;
+    }
+
+    /**
+     * @return why the files of the config can not be converted, null when they can
+     */
+    public static String checkFiles(ConfigFile config) {
+        if (config.getExcelFile() == null || !new File(config.getExcelFile()).isFile()) {
+            return "Excel file does not exist or is not a file : " + config.getExcelFile();
+        }
+        if (config.getPptFile() == null || !new File(config.getPptFile()).isFile()) {
+            return "PPT file does not exist or is not a file : " + config.getPptFile();
+        }
+        if (config.getOutputFolder() == null || !new File(config.getOutputFolder()).isDirectory()) {
+            return "Output folder does not exist or is not a directory : " + config.getOutputFolder();
+        }
+        if (config.getCompressionLevelOrDefault() < -1 || config.getCompressionLevelOrDefault() > 9) {
+            return "Compression level must be between -1 (default) and 9 : " + config.getCompressionLevel();
+        }
+        try {
+            config.getCompiled();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        if (config.getShard() != null) {
+            try {
+                ShardSpec.parse(config.getShard());
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+        }
+        return null;
+    }
+
+    public ConversionResult convert() throws IOException, InvalidFormatException {
+        long startTime = System.nanoTime();
+        File excelFile = new File(config.getExcelFile());
+        File pptFile = new File(config.getPptFile());
+        File outputFolder = new File(config.getOutputFolder());
+
+        RunReport report = RunReport.create();
+        report.putInfo("excelFile", excelFile.getAbsolutePath());
+        report.putInfo("pptFile", pptFile.getAbsolutePath());
+        report.putInfo("workers", config.getWorkerCountOrDefault());
+        report.putInfo("writers", config.getWriterCountOrDefault());
+        report.putInfo("streamingExcelReader", config.isStreamingExcelReader());
+        report.putInfo("readerThreads", config.isStreamingExcelReader() ? config.getReaderThreadsOrDefault() : 1);
+        report.putInfo("tableGenerator", config.getTableGeneratorOrDefault());
+        report.putInfo("compressionLevel", config.getCompressionLevelOrDefault());
+        report.putInfo("mediaPackaging", config.getMediaPackagingOrDefault());
+
+        //The template is needed by the generators as soon as the first region is read
+        TemplateSnapshot template;
+        try (PhaseTimer ignored = report.start(Phase.LOAD_TEMPLATE)) {
+            template = templateCache.get(pptFile);
+        }
+        logger.info("{} slides found", template.getSlideCount());
+
+        //A config not matching the template or the workbook fails now rather than after the extraction
+        Set<String> scannedRegions;
+        try (PhaseTimer ignored = report.start(Phase.PRE_SCAN)) {
+            CompiledConfig compiled = config.getCompiled();
+            String error = compiled.checkSlideCount(template.getSlideCount());
+            if (error != null) {
+                throw new IOException(error);
+            }
+            WorkbookPreScan.Result scan = WorkbookPreScan.scan(excelFile, compiled);
+            logger.info("{} sheets, {} regions found", scan.sheetCount(), scan.regions().size());
+            error = scan.getError();
+            if (error != null) {
+                throw new IOException(error);
+            }
+            String warning = scan.getWarning();
+            if (warning != null) {
+                logger.warn(warning);
+                report.putInfo("titlesNotInSharedStrings", scan.missingTitles());
+            }
+            scannedRegions = scan.regions();
+        }
+
+        //Distributed run : only the regions of the shard, and the ones not done or claimed by the other workers
+        ShardSpec shard = config.getShard() == null ? null : ShardSpec.parse(config.getShard());
+        WorkQueue workQueue = config.isWorkQueue() ? new WorkQueue(outputFolder, WorkQueue.getDefaultWorkerId(), Duration.ofMinutes(config.getClaimTimeoutMinutesOrDefault())) : null;
+        String workerName = null;
+        if (workQueue != null) {
+            workerName = workQueue.getWorkerId().replaceAll("[^A-Za-z0-9._-]", "_");
+            report.putInfo("worker", workQueue.getWorkerId());
+        } else if (shard != null) {
+            workerName = shard.getName();
+        }
+        if (shard != null) {
+            report.putInfo("shard", shard.toString());
+        }
+
+        //Incremental : only the regions whose fingerprint changed since the last run, the work queue reads the
+        //manifest of the folder itself
+        RegenerationManifest manifest = config.isIncremental() && workQueue == null ? RegenerationManifest.load(outputFolder) : null;
+
+        ProgressTracker progress = new ProgressTracker(control);
+        progress.expect((int) scannedRegions.stream().filter(region -> shard == null || shard.contains(region)).count());
+        RegionPipeline pipeline = new RegionPipeline(template, outputFolder, report, manifest, shard, workQueue, progress);
+        ExcelReader reader = ExcelReader.forConfig(config, report);
+        try {
+            reader.read(excelFile, pipeline::submit, control::isCancelled);
+        } catch (CancellationException e) {
+            if (!control.isCancelled()) {
+                throw e;
+            }
+            logger.warn("Conversion cancelled, the regions not written are dropped");
+        } finally {
+            pipeline.awaitAll();
+        }
+        progress.readFinished();
+        progress.finish();
+
+        Map<String, Object> pipelineMetrics = new LinkedHashMap<>();
+        pipelineMetrics.put("generate", pipeline.generateQueue.getMetrics());
+        pipelineMetrics.put("write", pipeline.writeQueue.getMetrics());
+        //Shared by the conversions of the process
+        pipelineMetrics.put("memory", executors.memoryBudget().getMetrics());
+        logger.debug("Pipeline : {}", pipelineMetrics);
+        report.putInfo("pipeline", pipelineMetrics);
+        if (reader.getStyleCacheMetrics() != null) {
+            report.putInfo("styleCache", reader.getStyleCacheMetrics());
+        }
+        for (Map.Entry<String, Throwable> failure : pipeline.failedRegions.entrySet()) {
+            logger.error("Region {} failed", failure.getKey(), failure.getValue());
+            report.regionFailed(failure.getKey(), failure.getValue());
+        }
+        List<String> timedOutRegions = pipeline.failedRegions.entrySet().stream().filter(failure -> failure.getValue() instanceof TimeoutException).map(Map.Entry::getKey).toList();
+        if (!timedOutRegions.isEmpty()) {
+            report.putInfo("timedOutRegions", timedOutRegions);
+        }
+        if (control.isCancelled()) {
+            logger.warn("Conversion cancelled : {} regions dropped", pipeline.cancelledRegions);
+            report.putInfo("cancelled", true);
+            report.putInfo("cancelledRegions", pipeline.cancelledRegions);
+        }
+        report.putInfo("progress", control.getProgress().toJson());
+        if (manifest != null) {
+            logger.info("{} regions unchanged", pipeline.skippedRegions);
+            report.putInfo("skippedRegions", pipeline.skippedRegions);
+            manifest.save(outputFolder);
+        }
+        if (shard != null) {
+            logger.info("{} regions left to the other shards", pipeline.otherShardRegions);
+            report.putInfo("otherShardRegions", pipeline.otherShardRegions);
+        }
+        if (workQueue != null) {
+            logger.info("{} regions done or claimed by other workers", pipeline.skippedRegions);
+            report.putInfo("skippedRegions", pipeline.skippedRegions);
+            report.putInfo("claimedByOtherWorkers", pipeline.claimedElsewhere.get());
+        }
+
+        logger.info("End Process : {} regions generated, {} failed", pipeline.outputFiles.size(), pipeline.failedRegions.size());
+        //One report per worker when several processes share the output folder
+        String reportSuffix = workerName == null ? config.getExcelSuffix() : config.getExcelSuffix() + "-" + workerName;
+        File reportFile = new File(outputFolder, RunReport.getFileName(reportSuffix));
+        report.write(reportFile);
+        return new ConversionResult(pipeline.outputFiles, pipeline.skippedRegions, pipeline.failedRegions, reportFile, (System.nanoTime() - startTime) / 1_000_000d, control.isCancelled());
+    }
+
+    /**
+     * Regions of one conversion going through the generate and write stages. Each region owns its RegionDeck and
+     * table generator, a failed region is collected and does not stop the others.
+     */
+    private class RegionPipeline {
+        private final TemplateSnapshot template;
+        private final File outputFolder;
+        private final RunReport report;
+        private final RegenerationManifest manifest;
+        private final ShardSpec shard;
+        private final WorkQueue workQueue;
+        private final PackageOptions packageOptions = PackageOptions.forConfig(config);
+        private final StageQueue generateQueue;
+        private final StageQueue writeQueue;
+        //Completed with the deck written, or null when the region is unchanged
+        private final Map<String, CompletableFuture<File>> results = new LinkedHashMap<>();
+        private final List<File> outputFiles = new ArrayList<>();
+        private final Map<String, Throwable> failedRegions = new LinkedHashMap<>();
+        private int skippedRegions;
+        private int otherShardRegions;
+        private final AtomicInteger claimedElsewhere = new AtomicInteger();
+        private final ProgressTracker progress;
+        private int cancelledRegions;
+
+        private RegionPipeline(TemplateSnapshot template, File outputFolder, RunReport report, RegenerationManifest manifest, ShardSpec shard, WorkQueue workQueue, ProgressTracker progress) {
+            this.template = template;
+            this.outputFolder = outputFolder;
+            this.report = report;
+            this.manifest = manifest;
+            this.shard = shard;
+            this.workQueue = workQueue;
+            this.progress = progress;
+            this.generateQueue = new StageQueue(config.getPipelineQueueCapacityOrDefault());
+            this.writeQueue = new StageQueue(config.getPipelineQueueCapacityOrDefault());
+        }
+
+        /**
+         * Called by the reader thread, blocks while the estimated cost of the region does not fit in the memory budget
+         * or while the generate stage is full. The memory is given back when the region is done, written or not.
+         * @throws CancellationException when the conversion is cancelled, to stop the read
+         */
+        private void submit(ExcelData excelData) {
+            if (control.isCancelled()) {
+                throw new CancellationException("Conversion cancelled");
+            }
+            if (shard != null && !shard.contains(excelData.getRegion())) {
+                otherShardRegions++;
+                return;
+            }
+            MemoryBudget memoryBudget = executors.memoryBudget();
+            int reservation;
+            try {
+                reservation = memoryBudget.reserve(RegionCostEstimator.estimate(excelData, config, template));
+                try {
+                    generateQueue.acquire();
+                } catch (InterruptedException e) {
+                    memoryBudget.release(reservation);
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while reading regions", e);
+            }
+            CompletableFuture<File> result = new CompletableFuture<>();
+            result.whenComplete((outputFile, error) -> {
+                memoryBudget.release(reservation);
+                if (error == null) {
+                    if (outputFile == null) {
+                        progress.skipped();
+                    } else {
+                        progress.written();
+                    }
+                } else if (!(error instanceof CancellationException)) {
+                    progress.failed();
+                }
+            });
+            results.put(excelData.getRegion(), result);
+            progress.submitted();
+            try {
+                executors.generators().execute(() -> generate(excelData, result));
+            } catch (RejectedExecutionException e) {
+                generateQueue.release();
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void generate(ExcelData excelData, CompletableFuture<File> result) {
+            String region = excelData.getRegion();
+            File outputFile = getOutputFile(outputFolder, region);
+            String fingerprint = null;
+            RegionDeck deck;
+            try {
+                checkCancelled();
+                if (excelData.getDataMapMonth() == null || excelData.getDataMapYTD() == null) {
+                    throw new IllegalStateException("MOIS or YTD sheet of the region missing or not extracted, see the sheet errors");
+                }
+                if (manifest != null || workQueue != null) {
+                    fingerprint = RegionFingerprint.compute(excelData, config, template.getContentHash());
+                }
+                if (manifest != null && manifest.isUpToDate(outputFile.getName(), fingerprint, outputFile)) {
+                    logger.debug("Region {} unchanged, skipped", region);
+                    result.complete(null);
+                    return;
+                }
+                if (workQueue != null) {
+                    WorkQueue.Claim claim = workQueue.claim(outputFile.getName(), fingerprint, outputFile);
+                    if (claim != WorkQueue.Claim.CLAIMED) {
+                        logger.debug("Region {} skipped : {}", region, claim);
+                        if (claim == WorkQueue.Claim.CLAIMED_ELSEWHERE) {
+                            claimedElsewhere.incrementAndGet();
+                        }
+                        result.complete(null);
+                        return;
+                    }
+                }
+                deck = generatePPTWithExcelData(region, excelData, template, report);
+            } catch (RuntimeException | IOException | TimeoutException e) {
+                fail(outputFile, result, e);
+                return;
+            } finally {
+                generateQueue.release();
+            }
+
+            try {
+                writeQueue.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(outputFile, result, e);
+                return;
+            }
+            String writtenFingerprint = fingerprint;
+            try {
+                executors.writers().execute(() -> write(region, deck, outputFile, writtenFingerprint, result));
+            } catch (RejectedExecutionException e) {
+                writeQueue.release();
+                fail(outputFile, result, e);
+            }
+        }
+
+        private void write(String region, RegionDeck deck, File outputFile, String fingerprint, CompletableFuture<File> result) {
+            try (PhaseTimer writeTimer = report.start(Phase.WRITE_DECK, region, null)) {
+                checkCancelled();
+                deck.write(outputFile, packageOptions);
+                writeTimer.addBytes(outputFile.length());
+                if (manifest != null) {
+                    manifest.put(outputFile.getName(), fingerprint);
+                }
+                if (workQueue != null) {
+                    workQueue.complete(outputFile.getName(), fingerprint);
+                }
+                result.complete(outputFile);
+            } catch (RuntimeException | IOException e) {
+                fail(outputFile, result, e);
+            } finally {
+                writeQueue.release();
+            }
+        }
+
+        private void checkCancelled() {
+            if (control.isCancelled()) {
+                throw new CancellationException("Conversion cancelled");
+            }
+        }
+
+        /**
+         * A failed region is removed from the manifest so it is regenerated by the next run. A cancelled one keeps its
+         * manifest entry, which still describes the deck of an earlier run : the cancellation never touches the file.
+         */
+        private void fail(File outputFile, CompletableFuture<File> result, Throwable error) {
+            if (manifest != null && !(error instanceof CancellationException)) {
+                manifest.remove(outputFile.getName());
+            }
+            if (workQueue != null) {
+                try {
+                    workQueue.release(outputFile.getName());
+                } catch (IOException e) {
+                    error.addSuppressed(e);
+                }
+            }
+            result.completeExceptionally(error);
+        }
+
+        /**
+         * Wait for every submitted region, even when the read failed, and collect the outcomes.
+         */
+        private void awaitAll() {
+            try {
+                for (Map.Entry<String, CompletableFuture<File>> result : results.entrySet()) {
+                    try {
+                        File outputFile = result.getValue().get();
+                        if (outputFile == null) {
+                            skippedRegions++;
+                        } else {
+                            outputFiles.add(outputFile);
+                        }
+                    } catch (ExecutionException e) {
+                        failedRegions.put(result.getKey(), e.getCause());
+                    } catch (CancellationException e) {
+                        cancelledRegions++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                results.values().forEach(result -> result.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while generating regions", e);
+            }
+        }
+    }
+
+    private RegionDeck generatePPTWithExcelData(String pptName, ExcelData excelData, TemplateSnapshot template, RunReport report) throws IOException, TimeoutException {
+        logger.debug("Generate PPT : {}", pptName);
+        long startNanos = System.nanoTime();
+        RegionDeck deck = new RegionDeck(template);
+        try (PhaseTimer regionTimer = report.start(Phase.REGION, pptName, null);
+             TableGenerator tableGenerator = TableGenerator.forConfig(config, report)) {
+            for (CompiledConfig.Entry configEntry : config.getCompiled().getEntries()) {
+                checkRegionBudget(pptName, startNanos);
+                TableData dataMonth = excelData.getDataMapMonth().get(configEntry.title());
+                TableData dataYTD = excelData.getDataMapYTD().get(configEntry.title());
+
+                if (dataMonth == null) {
+                    logger.error("Error when generate slide month {}, abort this region {}", configEntry.slideMonth(), pptName);
+                } else {
+                    generateTable(tableGenerator, dataMonth, deck, configEntry, configEntry.slideMonth(), regionTimer, report); //Generate slide Month
+                }
+                if (dataYTD == null) {
+                    logger.error("Error when generate slide YTD {} for this region : {}", configEntry.slideYTD(), pptName);
+                } else {
+                    generateTable(tableGenerator, dataYTD, deck, configEntry, configEntry.slideYTD(), regionTimer, report); //Generate slide YTD
+                }
+            }
+        }
+        return deck;
+    }
+
+    //Checked between tables, a table being generated is not interrupted
+    private void checkRegionBudget(String pptName, long startNanos) throws TimeoutException {
+        long budget = config.getRegionTimeoutNanos();
+        if (budget > 0 && System.nanoTime() - startNanos > budget) {
+            throw new TimeoutException("Region " + pptName + " over its time budget of " + config.getRegionTimeoutSeconds() + " s");
+        }
+    }
+
+    private File getOutputFile(File outputFolder, String pptName) {
+        return new File(outputFolder.getAbsolutePath() + "/" + pptName + config.getExcelSuffix() + ".pptx");
+    }
+
+    private static void generateTable(TableGenerator tableGenerator, TableData data, RegionDeck deck, CompiledConfig.Entry config, int slidePos, PhaseTimer regionTimer, RunReport report) throws IOException {
+        try (PhaseTimer timer = report.start(Phase.GENERATE_TABLE, null, config.title())) {
+            tableGenerator.generateSlide(data, deck, config.anchor(), config.textSize(), slidePos);
+            timer.addTable(data);
+        }
+        regionTimer.addTable(data);
+    }
+}
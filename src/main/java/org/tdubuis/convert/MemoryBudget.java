@@ -0,0 +1,84 @@
+package org.tdubuis.convert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Heap budget of the regions in flight, a weighted semaphore counted in KiB : a region reserves its estimated cost
+ * ({@link RegionCostEstimator}) before its generation and releases it once its deck is written, so the regions running
+ * in parallel never hold more than the budget. A region costing more than the whole budget waits to run alone.
+ * Shared by all the conversions of the process. Thread-safe.
+ */
+public class MemoryBudget {
+    private static final int UNIT = 1024;
+
+    private final int capacity;
+    private final Semaphore permits;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong peakReserved = new AtomicLong();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    /**
+     * @param budgetBytes {@link #getDefaultBudgetBytes()} when 0 or less
+     */
+    public MemoryBudget(long budgetBytes) {
+        if (budgetBytes <= 0) {
+            budgetBytes = getDefaultBudgetBytes();
+        }
+        this.capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, budgetBytes / UNIT));
+        this.permits = new Semaphore(capacity, true);
+    }
+
+    /**
+     * @return 60% of the max heap, the rest is left to the workbook read, the template and the caches
+     */
+    public static long getDefaultBudgetBytes() {
+        return Runtime.getRuntime().maxMemory() / 10 * 6;
+    }
+
+    /**
+     * Block until the cost fits in the budget.
+     * @return reservation to give back to {@link #release}
+     */
+    public int reserve(long costBytes) throws InterruptedException {
+        int reservation = (int) Math.max(1, Math.min(capacity, (costBytes + UNIT - 1) / UNIT));
+        if (!permits.tryAcquire(reservation)) {
+            waits.increment();
+            long start = System.nanoTime();
+            permits.acquire(reservation);
+            blockedNanos.add(System.nanoTime() - start);
+        }
+        admitted.increment();
+        peakReserved.accumulateAndGet(reserved.addAndGet(reservation), Math::max);
+        return reservation;
+    }
+
+    public void release(int reservation) {
+        reserved.addAndGet(-reservation);
+        permits.release(reservation);
+    }
+
+    /**
+     * @return budget, current and peak reservations (MiB), regions admitted, regions which waited and total wait time
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("budgetMb", toMb(capacity));
+        metrics.put("reservedMb", toMb(reserved.get()));
+        metrics.put("peakReservedMb", toMb(peakReserved.get()));
+        metrics.put("admittedRegions", admitted.sum());
+        metrics.put("waitingRegions", permits.getQueueLength());
+        metrics.put("waits", waits.sum());
+        metrics.put("blockedMs", blockedNanos.sum() / 1_000_000d);
+        return metrics;
+    }
+
+    private static double toMb(long kib) {
+        return Math.round(kib / 1024d * 10) / 10d;
+    }
+}
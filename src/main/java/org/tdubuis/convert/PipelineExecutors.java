@@ -0,0 +1,35 @@
+package org.tdubuis.convert;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads of the generate and write stages and heap budget of the regions in flight, can be shared by several
+ * conversions.
+ * @param generators build the region decks (CPU)
+ * @param writers serialize and write the decks (deflate and disk)
+ * @param memoryBudget admission of the regions by estimated heap cost
+ */
+public record PipelineExecutors(ExecutorService generators, ExecutorService writers, MemoryBudget memoryBudget) implements Closeable {
+
+    public static PipelineExecutors create(int generatorCount, int writerCount, long memoryBudgetBytes) {
+        return new PipelineExecutors(newDaemonPool("region-worker-", generatorCount), newDaemonPool("deck-writer-", writerCount), new MemoryBudget(memoryBudgetBytes));
+    }
+
+    private static ExecutorService newDaemonPool(String namePrefix, int threadCount) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close() {
+        generators.shutdownNow();
+        writers.shutdownNow();
+    }
+}
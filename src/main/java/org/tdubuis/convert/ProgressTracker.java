@@ -0,0 +1,86 @@
+package org.tdubuis.convert;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Region counters of one conversion, published to its {@link ConversionControl} on every change and logged at most
+ * every LOG_INTERVAL. Thread-safe.
+ */
+class ProgressTracker {
+    private static final Logger logger = LogManager.getLogger(ProgressTracker.class);
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ConversionControl control;
+    private final long startNanos = System.nanoTime();
+    private long lastLogNanos = startNanos;
+    private int expectedRegions;
+    private int submittedRegions;
+    private boolean readFinished;
+    private int writtenRegions;
+    private int skippedRegions;
+    private int failedRegions;
+
+    ProgressTracker(ConversionControl control) {
+        this.control = control;
+    }
+
+    /**
+     * @param regions regions found by the pre-scan, the total until the read ends
+     */
+    synchronized void expect(int regions) {
+        expectedRegions = regions;
+        publish(false);
+    }
+
+    synchronized void submitted() {
+        submittedRegions++;
+    }
+
+    /**
+     * The regions submitted are now the total.
+     */
+    synchronized void readFinished() {
+        readFinished = true;
+        publish(false);
+    }
+
+    synchronized void written() {
+        writtenRegions++;
+        publish(false);
+    }
+
+    synchronized void skipped() {
+        skippedRegions++;
+        publish(false);
+    }
+
+    synchronized void failed() {
+        failedRegions++;
+        publish(false);
+    }
+
+    /**
+     * Publish and log the final progress.
+     */
+    synchronized void finish() {
+        publish(true);
+    }
+
+    private void publish(boolean log) {
+        long now = System.nanoTime();
+        int total = readFinished ? submittedRegions : Math.max(expectedRegions, submittedRegions);
+        int completed = writtenRegions + skippedRegions + failedRegions;
+        double elapsedMs = (now - startNanos) / 1_000_000d;
+        double regionsPerSecond = elapsedMs > 0 ? completed * 1000d / elapsedMs : 0;
+        long etaMs = completed == 0 ? -1 : Math.round(Math.max(0, total - completed) * elapsedMs / completed);
+        ConversionProgress progress = new ConversionProgress(total, writtenRegions, skippedRegions, failedRegions, elapsedMs, regionsPerSecond, etaMs);
+        control.update(progress);
+        if (log || now - lastLogNanos >= LOG_INTERVAL_NANOS) {
+            lastLogNanos = now;
+            logger.info("Progress : {}", progress);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.tdubuis.convert;
+
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.template.TemplateSnapshot;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimate of the heap held by one region from its generation to the end of its deck write : the slides receiving a
+ * table (copied, and parsed by the XSLF generator), the generated table XML or XMLBeans objects, and the buffers of the
+ * deck write. Rough by design, the constants are kept pessimistic.
+ */
+final class RegionCostEstimator {
+    //Generator, deck and write buffers whatever the tables
+    private static final long BASE_BYTES = 256 * 1024;
+    //Streamed XML of a cell (text, style and borders), then spliced in the slide
+    private static final long DIRECT_CELL_BYTES = 1024;
+    //XMLBeans objects of a cell built with the XSLF API
+    private static final long XSLF_CELL_BYTES = 8 * 1024;
+    private static final long MERGE_BYTES = 256;
+    //Copy of the slide XML, and its DOM when the slide is parsed
+    private static final int DIRECT_SLIDE_FACTOR = 3;
+    private static final int XSLF_SLIDE_FACTOR = 12;
+
+    private RegionCostEstimator() {
+    }
+
+    static long estimate(ExcelData excelData, ConfigFile config, TemplateSnapshot template) {
+        boolean xslf = config.getTableGeneratorOrDefault() == ConfigFile.TableGeneratorType.XSLF;
+        long cells = 0;
+        long merges = 0;
+        Set<Integer> slides = new HashSet<>();
+        for (CompiledConfig.Entry entry : config.getCompiled().getEntries()) {
+            TableData month = get(excelData.getDataMapMonth(), entry.title());
+            TableData ytd = get(excelData.getDataMapYTD(), entry.title());
+            if (month != null) {
+                cells += (long) month.getRowCount() * month.getColumnCount();
+                merges += month.getMergedRegionCount();
+                slides.add(entry.slideMonth());
+            }
+            if (ytd != null) {
+                cells += (long) ytd.getRowCount() * ytd.getColumnCount();
+                merges += ytd.getMergedRegionCount();
+                slides.add(entry.slideYTD());
+            }
+        }
+
+        long slideBytes = 0;
+        for (Integer slide : slides) {
+            if (slide <= template.getSlideCount()) {
+                slideBytes += template.getEntry(template.getSlidePartName(slide)).length;
+            }
+        }
+        return BASE_BYTES
+                + cells * (xslf ? XSLF_CELL_BYTES : DIRECT_CELL_BYTES)
+                + merges * MERGE_BYTES
+                + slideBytes * (xslf ? XSLF_SLIDE_FACTOR : DIRECT_SLIDE_FACTOR);
+    }
+
+    private static TableData get(Map<String, TableData> dataMap, String title) {
+        return dataMap == null ? null : dataMap.get(title);
+    }
+}
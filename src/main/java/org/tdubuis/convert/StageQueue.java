@@ -0,0 +1,57 @@
+package org.tdubuis.convert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bound of the regions waiting for or running in a pipeline stage. The previous stage blocks in {@link #acquire} when
+ * the stage is full (backpressure), depth and blocked time are measured for the run report.
+ */
+class StageQueue {
+    private final int capacity;
+    private final Semaphore permits;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final LongAdder depthSum = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    StageQueue(int capacity) {
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    void acquire() throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            long start = System.nanoTime();
+            permits.acquire();
+            blockedNanos.add(System.nanoTime() - start);
+        }
+        int currentDepth = depth.incrementAndGet();
+        maxDepth.accumulateAndGet(currentDepth, Math::max);
+        depthSum.add(currentDepth);
+        items.increment();
+    }
+
+    void release() {
+        depth.decrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * @return capacity, items, max and average depth seen by the items entering, time the previous stage was blocked
+     */
+    Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long count = items.sum();
+        metrics.put("capacity", capacity);
+        metrics.put("items", count);
+        metrics.put("maxDepth", maxDepth.get());
+        metrics.put("averageDepth", count == 0 ? 0 : (double) depthSum.sum() / count);
+        metrics.put("blockedMs", blockedNanos.sum() / 1_000_000d);
+        return metrics;
+    }
+}
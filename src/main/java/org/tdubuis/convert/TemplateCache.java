@@ -0,0 +1,44 @@
+package org.tdubuis.convert;
+
+import org.tdubuis.template.TemplateSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Template snapshots by file, shared by the conversions of a batch or of the server.
+ * A snapshot is loaded again when the size or the modification date of its file changed.
+ */
+public class TemplateCache {
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+
+    private record CachedTemplate(long size, long lastModified, TemplateSnapshot snapshot) {
+    }
+
+    public TemplateSnapshot get(File pptFile) throws IOException {
+        String key = pptFile.getCanonicalPath();
+        long size = pptFile.length();
+        long lastModified = pptFile.lastModified();
+        try {
+            return templates.compute(key, (k, cached) -> {
+                if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+                    return cached;
+                }
+                try {
+                    return new CachedTemplate(size, lastModified, TemplateSnapshot.load(pptFile));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).snapshot();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public int size() {
+        return templates.size();
+    }
+}
@@ -0,0 +1,31 @@
+package org.tdubuis.filedata;
+
+import lombok.Value;
+
+import java.awt.Color;
+
+/**
+ * Immutable style of a table cell, already converted from the Excel cell style.
+ * Alignment names are the ones of the PPT model (VerticalAlignment and TextParagraph.TextAlign).
+ * A null color means no fill, no font color or no border.
+ */
+@Value
+public class CellStyle {
+    public static final CellStyle EMPTY = new CellStyle(null, VerticalAlign.BOTTOM, TextAlign.JUSTIFY_LOW, "Calibri", null, false, false, null, null, null, null);
+
+    public enum VerticalAlign { TOP, MIDDLE, BOTTOM, JUSTIFIED, DISTRIBUTED }
+
+    public enum TextAlign { LEFT, CENTER, RIGHT, JUSTIFY, JUSTIFY_LOW, DIST, THAI_DIST }
+
+    Color fillColor;
+    VerticalAlign verticalAlign;
+    TextAlign textAlign;
+    String fontName;
+    Color fontColor;
+    boolean bold;
+    boolean italic;
+    Color borderTopColor;
+    Color borderBottomColor;
+    Color borderRightColor;
+    Color borderLeftColor;
+}
@@ -0,0 +1,33 @@
+package org.tdubuis.filedata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Distinct cell styles of a workbook, referenced by id from {@link TableData}.
+ * A workbook has a few dozen styles for thousands of cells. Interning is synchronized, reads are lock free.
+ */
+public class StyleTable {
+    private final List<CellStyle> styles = new CopyOnWriteArrayList<>();
+    private final Map<CellStyle, Integer> styleIds = new HashMap<>();
+
+    public synchronized int intern(CellStyle style) {
+        Integer styleId = styleIds.get(style);
+        if (styleId == null) {
+            styleId = styles.size();
+            styles.add(style);
+            styleIds.put(style, styleId);
+        }
+        return styleId;
+    }
+
+    public CellStyle get(int styleId) {
+        return styles.get(styleId);
+    }
+
+    public int size() {
+        return styles.size();
+    }
+}
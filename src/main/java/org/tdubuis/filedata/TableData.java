@@ -0,0 +1,68 @@
+package org.tdubuis.filedata;
+
+import lombok.Getter;
+
+/**
+ * One table extracted from a sheet, detached from POI.
+ * Texts and style ids are stored column by column, merged regions are packed by 4 ints
+ * (firstRow, lastRow, firstColumn, lastColumn) relative to the first cell of the table.
+ * Immutable once built, can be shared between threads.
+ */
+public class TableData {
+    @Getter private final int rowCount;
+    @Getter private final int columnCount;
+    private final String[] texts;
+    private final int[] styleIds;
+    private final float[] columnWidths;
+    private final int[] mergedRegions;
+    @Getter private final StyleTable styleTable;
+
+    public TableData(int rowCount, int columnCount, String[] texts, int[] styleIds, float[] columnWidths, int[] mergedRegions, StyleTable styleTable) {
+        if (texts.length != rowCount * columnCount || styleIds.length != texts.length || columnWidths.length != columnCount || mergedRegions.length % 4 != 0) {
+            throw new IllegalArgumentException("Inconsistent table size " + rowCount + "x" + columnCount);
+        }
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.texts = texts;
+        this.styleIds = styleIds;
+        this.columnWidths = columnWidths;
+        this.mergedRegions = mergedRegions;
+        this.styleTable = styleTable;
+    }
+
+    public String getText(int row, int column) {
+        return texts[column * rowCount + row];
+    }
+
+    public int getStyleId(int row, int column) {
+        return styleIds[column * rowCount + row];
+    }
+
+    public CellStyle getStyle(int row, int column) {
+        return styleTable.get(getStyleId(row, column));
+    }
+
+    public float getColumnWidth(int column) {
+        return columnWidths[column];
+    }
+
+    public int getMergedRegionCount() {
+        return mergedRegions.length / 4;
+    }
+
+    public int getMergedFirstRow(int mergedRegion) {
+        return mergedRegions[mergedRegion * 4];
+    }
+
+    public int getMergedLastRow(int mergedRegion) {
+        return mergedRegions[mergedRegion * 4 + 1];
+    }
+
+    public int getMergedFirstColumn(int mergedRegion) {
+        return mergedRegions[mergedRegion * 4 + 2];
+    }
+
+    public int getMergedLastColumn(int mergedRegion) {
+        return mergedRegions[mergedRegion * 4 + 3];
+    }
+}
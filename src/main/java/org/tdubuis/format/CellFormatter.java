@@ -0,0 +1,8 @@
+package org.tdubuis.format;
+
+/**
+ * Format the numeric value of a cell with a compiled Excel data format. Implementations are immutable and thread-safe.
+ */
+public interface CellFormatter {
+    String format(double value);
+}
@@ -0,0 +1,161 @@
+package org.tdubuis.format;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Excel date format such as "mmm-yy", "dd/mm/yyyy" or "hh:mm", translated once to a {@link DateTimeFormatter} and
+ * applied on the date serial number of the cell. Elapsed time ([h]) and fractional seconds are not supported.
+ */
+public class DateFormatter implements CellFormatter {
+    private final DateTimeFormatter formatter;
+
+    private DateFormatter(DateTimeFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the format is not supported
+     */
+    public static DateFormatter compile(String formatString, Locale locale) {
+        return new DateFormatter(DateTimeFormatter.ofPattern(toJavaPattern(formatString), locale));
+    }
+
+    @Override
+    public String format(double value) {
+        if (!DateUtil.isValidExcelDate(value)) {
+            return GeneralFormatter.INSTANCE.format(value);
+        }
+        LocalDateTime date = DateUtil.getLocalDateTime(value);
+        return formatter.format(date);
+    }
+
+    private static String toJavaPattern(String formatString) {
+        //Only the first section is used for dates
+        String section = formatString.split(";", -1)[0];
+        List<String> tokens = tokenize(section);
+        boolean twelveHours = tokens.stream().anyMatch(token -> token.equals("AM/PM") || token.equals("A/P"));
+
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.startsWith("'")) {
+                pattern.append(token);
+                continue;
+            }
+            int length = token.length();
+            switch (token.charAt(0)) {
+                case 'y' -> pattern.append(length <= 2 ? "yy" : "yyyy");
+                case 'd' -> pattern.append(switch (length) {
+                    case 1 -> "d";
+                    case 2 -> "dd";
+                    case 3 -> "EEE";
+                    default -> "EEEE";
+                });
+                case 'h' -> pattern.append(twelveHours ? (length == 1 ? "h" : "hh") : (length == 1 ? "H" : "HH"));
+                case 's' -> pattern.append(length == 1 ? "s" : "ss");
+                case 'm' -> {
+                    if (length <= 2 && isMinute(tokens, i)) {
+                        pattern.append(length == 1 ? "m" : "mm");
+                    } else {
+                        pattern.append(switch (length) {
+                            case 1 -> "M";
+                            case 2 -> "MM";
+                            case 3 -> "MMM";
+                            case 4 -> "MMMM";
+                            default -> "MMMMM";
+                        });
+                    }
+                }
+                case 'A' -> pattern.append("a");
+                default -> throw new IllegalArgumentException("unexpected date token " + token);
+            }
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * "m" is a minute right after an hour or right before a second, a month otherwise.
+     */
+    private static boolean isMinute(List<String> tokens, int index) {
+        for (int i = index - 1; i >= 0; i--) {
+            if (!tokens.get(i).startsWith("'")) {
+                if (tokens.get(i).charAt(0) == 'h') {
+                    return true;
+                }
+                break;
+            }
+        }
+        for (int i = index + 1; i < tokens.size(); i++) {
+            if (!tokens.get(i).startsWith("'")) {
+                return tokens.get(i).charAt(0) == 's';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Split the format into date tokens (runs of the same lower case letter, AM/PM, A/P) and quoted literals.
+     */
+    private static List<String> tokenize(String section) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < section.length()) {
+            char c = section.charAt(i);
+            char lower = Character.toLowerCase(c);
+            if (section.regionMatches(true, i, "AM/PM", 0, 5)) {
+                tokens.add("AM/PM");
+                i += 5;
+            } else if (section.regionMatches(true, i, "A/P", 0, 3)) {
+                tokens.add("A/P");
+                i += 3;
+            } else if (lower == 'y' || lower == 'm' || lower == 'd' || lower == 'h' || lower == 's') {
+                int end = i;
+                while (end < section.length() && Character.toLowerCase(section.charAt(end)) == lower) {
+                    end++;
+                }
+                tokens.add(String.valueOf(lower).repeat(end - i));
+                i = end;
+            } else if (c == '"') {
+                int end = section.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("unterminated quote");
+                }
+                tokens.add(quote(section.substring(i + 1, end)));
+                i = end + 1;
+            } else if (c == '\\') {
+                if (i + 1 < section.length()) {
+                    tokens.add(quote(String.valueOf(section.charAt(i + 1))));
+                }
+                i += 2;
+            } else if (c == '[') {
+                int end = section.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("unterminated bracket");
+                }
+                String content = section.substring(i + 1, end).toLowerCase(Locale.ROOT);
+                if (content.startsWith("h") || content.startsWith("m") || content.startsWith("s")) {
+                    throw new IllegalArgumentException("elapsed time format");
+                }
+                i = end + 1;
+            } else if (c == '_' || c == '*') {
+                i += 2;
+            } else if (c == '@' || c == '0' || c == '#') {
+                throw new IllegalArgumentException("unexpected character " + c + " in date format");
+            } else {
+                tokens.add(quote(String.valueOf(c)));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static String quote(String literal) {
+        return "'" + literal.replace("'", "''") + "'";
+    }
+}
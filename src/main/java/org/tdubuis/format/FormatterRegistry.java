@@ -0,0 +1,70 @@
+package org.tdubuis.format;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled Excel data formats, each format string is compiled once for the whole run.
+ * Unsupported formats fall back to the General format with a warning instead of failing the run, at compile time
+ * and at format time (see {@link #format}).
+ */
+public class FormatterRegistry {
+    private static final Logger logger = LogManager.getLogger(FormatterRegistry.class);
+    private static final Map<String, CellFormatter> formatters = new ConcurrentHashMap<>();
+    private static final Set<CellFormatter> failedFormatters = ConcurrentHashMap.newKeySet();
+
+    private FormatterRegistry() {
+    }
+
+    /**
+     * @param dataFormat index of the data format in the workbook, used to recognize the built-in date formats
+     * @param formatString data format string
+     */
+    public static CellFormatter get(short dataFormat, String formatString) {
+        if (formatString == null) {
+            return GeneralFormatter.INSTANCE;
+        }
+        return formatters.computeIfAbsent(formatString, format -> compile(dataFormat, format));
+    }
+
+    /**
+     * @return the value formatted by the formatter, or with the General format when the formatter fails (logged once
+     * per formatter)
+     */
+    public static String format(CellFormatter formatter, double value) {
+        try {
+            return formatter.format(value);
+        } catch (RuntimeException e) {
+            if (failedFormatters.add(formatter)) {
+                logger.warn("{} failed on {}, General format is used for the values it can not format", formatter.getClass().getSimpleName(), value, e);
+            }
+            return GeneralFormatter.INSTANCE.format(value);
+        }
+    }
+
+    public static int size() {
+        return formatters.size();
+    }
+
+    private static CellFormatter compile(short dataFormat, String formatString) {
+        if (formatString.equalsIgnoreCase("General") || formatString.equals("@")) {
+            return GeneralFormatter.INSTANCE;
+        }
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            if (DateUtil.isADateFormat(dataFormat, formatString)) {
+                return DateFormatter.compile(formatString, locale);
+            }
+            return NumberPatternFormatter.compile(formatString, locale);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unsupported format \"{}\", General format is used : {}", formatString, e.getMessage());
+            return GeneralFormatter.INSTANCE;
+        }
+    }
+}
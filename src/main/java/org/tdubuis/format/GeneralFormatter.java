@@ -0,0 +1,19 @@
+package org.tdubuis.format;
+
+/**
+ * Excel "General" format : integers without decimal part, other numbers with their shortest representation.
+ */
+public class GeneralFormatter implements CellFormatter {
+    public static final GeneralFormatter INSTANCE = new GeneralFormatter();
+
+    private GeneralFormatter() {
+    }
+
+    @Override
+    public String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,245 @@
+package org.tdubuis.format;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Excel number format such as "0", "#,##0", "0.0%", "#,##0,\" K\"" or "#,##0;-#,##0;\"-\"".
+ * Supported : digit placeholders, grouping, thousands scaling with trailing commas, percent, quoted and escaped literals,
+ * currency brackets and up to 3 sections (positive;negative;zero). Colors and conditions are ignored.
+ * Rounding is half up like Excel. Scientific and fraction formats are not supported.
+ */
+public class NumberPatternFormatter implements CellFormatter {
+    private final Section positive;
+    private final Section negative;
+    private final Section zero;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final char minusSign;
+
+    private record Section(String prefix, String suffix, boolean hasDigits, int minIntegerDigits, boolean grouping,
+                           int minFractionDigits, int maxFractionDigits, boolean percent, int thousandsScale) {
+    }
+
+    private NumberPatternFormatter(Section positive, Section negative, Section zero, DecimalFormatSymbols symbols) {
+        this.positive = positive;
+        this.negative = negative;
+        this.zero = zero;
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.minusSign = symbols.getMinusSign();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the format is not supported
+     */
+    public static NumberPatternFormatter compile(String formatString, Locale locale) {
+        List<String> sections = splitSections(formatString);
+        Section positive = parseSection(sections.get(0));
+        Section negative = sections.size() > 1 ? parseSection(sections.get(1)) : null;
+        Section zero = sections.size() > 2 ? parseSection(sections.get(2)) : null;
+        return new NumberPatternFormatter(positive, negative, zero, DecimalFormatSymbols.getInstance(locale));
+    }
+
+    @Override
+    public String format(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return GeneralFormatter.INSTANCE.format(value);
+        }
+        if (value == 0 && zero != null) {
+            return format(zero, 0);
+        }
+        if (value < 0) {
+            if (negative != null) {
+                return format(negative, -value);
+            }
+            //Like DataFormatter, a negative value rounded to zero keeps its sign ("-0") unless it was scaled by thousands
+            String formatted = format(positive, -value);
+            return positive.thousandsScale() > 0 && !hasNonZeroDigit(formatted) ? formatted : minusSign + formatted;
+        }
+        return format(positive, value);
+    }
+
+    private String format(Section section, double value) {
+        if (!section.hasDigits()) {
+            return section.prefix() + section.suffix();
+        }
+        double number = section.percent() ? value * 100 : value;
+        for (int i = 0; i < section.thousandsScale(); i++) {
+            number /= 1000;
+        }
+        String plain = new BigDecimal(Double.toString(number)).setScale(section.maxFractionDigits(), RoundingMode.HALF_UP).toPlainString();
+        int point = plain.indexOf('.');
+        String integerPart = point < 0 ? plain : plain.substring(0, point);
+        String fractionPart = point < 0 ? "" : plain.substring(point + 1);
+
+        //An integer part of "#" only still writes "0", like DataFormatter
+        StringBuilder result = new StringBuilder(section.prefix());
+        StringBuilder integerDigits = new StringBuilder();
+        for (int i = integerPart.length(); i < section.minIntegerDigits(); i++) {
+            integerDigits.append('0');
+        }
+        integerDigits.append(integerPart);
+        if (section.grouping()) {
+            for (int i = 0; i < integerDigits.length(); i++) {
+                int remaining = integerDigits.length() - i;
+                if (i > 0 && remaining % 3 == 0) {
+                    result.append(groupingSeparator);
+                }
+                result.append(integerDigits.charAt(i));
+            }
+        } else {
+            result.append(integerDigits);
+        }
+
+        int fractionLength = fractionPart.length();
+        while (fractionLength > section.minFractionDigits() && fractionPart.charAt(fractionLength - 1) == '0') {
+            fractionLength--;
+        }
+        if (fractionLength > 0) {
+            result.append(decimalSeparator).append(fractionPart, 0, fractionLength);
+        }
+        return result.append(section.suffix()).toString();
+    }
+
+    private static boolean hasNonZeroDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '1' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> splitSections(String formatString) {
+        List<String> sections = new ArrayList<>();
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i < formatString.length(); i++) {
+            char c = formatString.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\\' && !quoted) {
+                i++;
+            } else if (c == ';' && !quoted) {
+                sections.add(formatString.substring(start, i));
+                start = i + 1;
+            }
+        }
+        sections.add(formatString.substring(start));
+        return sections;
+    }
+
+    private static Section parseSection(String pattern) {
+        StringBuilder prefix = new StringBuilder();
+        StringBuilder suffix = new StringBuilder();
+        boolean hasDigits = false;
+        boolean afterDigits = false;
+        boolean inFraction = false;
+        boolean grouping = false;
+        boolean percent = false;
+        int minIntegerDigits = 0;
+        int minFractionDigits = 0;
+        int maxFractionDigits = 0;
+        int pendingCommas = 0;
+
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            String literal = null;
+            switch (c) {
+                case '"' -> {
+                    int end = pattern.indexOf('"', i + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("unterminated quote");
+                    }
+                    literal = pattern.substring(i + 1, end);
+                    i = end;
+                }
+                case '\\' -> {
+                    if (i + 1 < pattern.length()) {
+                        literal = String.valueOf(pattern.charAt(++i));
+                    }
+                }
+                case '_' -> {
+                    literal = " ";
+                    i++;
+                }
+                case '*' -> i++;
+                case '[' -> {
+                    int end = pattern.indexOf(']', i);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("unterminated bracket");
+                    }
+                    String content = pattern.substring(i + 1, end);
+                    if (content.startsWith("$")) {
+                        int dash = content.indexOf('-');
+                        literal = content.substring(1, dash < 0 ? content.length() : dash);
+                    }
+                    i = end;
+                }
+                case '0', '#', '?' -> {
+                    if (afterDigits) {
+                        throw new IllegalArgumentException("literal between digits");
+                    }
+                    if (pendingCommas > 0 && !inFraction) {
+                        grouping = true;
+                    }
+                    pendingCommas = 0;
+                    hasDigits = true;
+                    if (inFraction) {
+                        maxFractionDigits++;
+                        if (c == '0') {
+                            minFractionDigits++;
+                        }
+                    } else if (c == '0') {
+                        minIntegerDigits++;
+                    }
+                }
+                case ',' -> {
+                    if (hasDigits && !afterDigits) {
+                        pendingCommas++;
+                    } else {
+                        literal = ",";
+                    }
+                }
+                case '.' -> {
+                    if (!inFraction && !afterDigits) {
+                        inFraction = true;
+                    } else {
+                        literal = ".";
+                    }
+                }
+                case '%' -> {
+                    percent = true;
+                    literal = "%";
+                }
+                case 'E', 'e' -> throw new IllegalArgumentException("scientific format");
+                case '/' -> {
+                    if (hasDigits) {
+                        throw new IllegalArgumentException("fraction format");
+                    }
+                    literal = "/";
+                }
+                default -> literal = String.valueOf(c);
+            }
+            if (literal != null) {
+                if (hasDigits) {
+                    afterDigits = true;
+                    suffix.append(literal);
+                } else {
+                    prefix.append(literal);
+                }
+            }
+            i++;
+        }
+        //Commas after the last digit divide by 1000 each
+        return new Section(prefix.toString(), suffix.toString(), hasDigits, minIntegerDigits, grouping,
+                minFractionDigits, maxFractionDigits, percent, pendingCommas);
+    }
+}
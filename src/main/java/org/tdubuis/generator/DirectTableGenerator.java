@@ -0,0 +1,304 @@
+package org.tdubuis.generator;
+
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.common.usermodel.fonts.FontGroup;
+import org.apache.poi.util.Units;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.Phase;
+import org.tdubuis.report.PhaseTimer;
+import org.tdubuis.report.RunReport;
+import org.tdubuis.template.RegionDeck;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Write the graphic frame XML of the table in a single pass with a StAX writer, then splice it in the slide part.
+ * No XSLF or XMLBeans object is created per cell : borders, merges and the left border fix are computed by
+ * {@link TableBorders} on arrays and written while streaming. The XML is the same as the one built by
+ * {@link XslfTableGenerator}, defaults of the XSLF text body included, and the characters XML does not allow are
+ * replaced by "?" like XMLBeans does.
+ */
+public class DirectTableGenerator implements TableGenerator {
+    private static final Logger logger = LogManager.getLogger(DirectTableGenerator.class);
+
+    private static final String NS_A = "http://schemas.openxmlformats.org/drawingml/2006/main";
+    private static final String NS_P = "http://schemas.openxmlformats.org/presentationml/2006/main";
+    private static final String TABLE_URI = "http://schemas.openxmlformats.org/drawingml/2006/table";
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final double ROW_HEIGHT = 20.0;
+    private static final double FONT_SIZE = 9.0;
+    private static final double BORDER_WIDTH = 1.0;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final RunReport report;
+
+    public DirectTableGenerator(RunReport report) {
+        this.report = report;
+    }
+
+    @Override
+    public void generateSlide(@NonNull TableData data, @NonNull RegionDeck deck, @NonNull CompiledConfig.Anchor anchor, int textSize, int slidePos) throws IOException {
+        logger.debug("Generate slide : {}", slidePos);
+        long shapeId = deck.reserveShapeId(slidePos);
+        TableBorders borders;
+        try (PhaseTimer timer = report.start(Phase.FIX_BORDERS)) {
+            borders = new TableBorders(data);
+            timer.addTable(data);
+        }
+        deck.addGraphicFrameXml(slidePos, emit(data, borders, anchor, shapeId));
+    }
+
+    /**
+     * @return p:graphicFrame element of the table, with its namespace declarations
+     */
+    public static byte[] emit(TableData data, TableBorders borders, CompiledConfig.Anchor anchor, long shapeId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + data.getRowCount() * data.getColumnCount() * 700);
+        try {
+            XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.setPrefix("p", NS_P);
+            writer.setPrefix("a", NS_A);
+            writer.writeStartElement("p", "graphicFrame", NS_P);
+            writer.writeNamespace("p", NS_P);
+            writer.writeNamespace("a", NS_A);
+
+            writer.writeStartElement(NS_P, "nvGraphicFramePr");
+            writer.writeEmptyElement(NS_P, "cNvPr");
+            writer.writeAttribute("id", Long.toString(shapeId));
+            writer.writeAttribute("name", "Table " + shapeId);
+            writer.writeStartElement(NS_P, "cNvGraphicFramePr");
+            writer.writeEmptyElement(NS_A, "graphicFrameLocks");
+            writer.writeAttribute("noGrp", "true");
+            writer.writeEndElement();
+            writer.writeEmptyElement(NS_P, "nvPr");
+            writer.writeEndElement();
+
+            writer.writeStartElement(NS_P, "xfrm");
+            writer.writeEmptyElement(NS_A, "off");
+            writer.writeAttribute("x", Long.toString(anchor.getXEmu()));
+            writer.writeAttribute("y", Long.toString(anchor.getYEmu()));
+            writer.writeEmptyElement(NS_A, "ext");
+            writer.writeAttribute("cx", Long.toString(anchor.getWidthEmu()));
+            writer.writeAttribute("cy", Long.toString(anchor.getHeightEmu()));
+            writer.writeEndElement();
+
+            writer.writeStartElement(NS_A, "graphic");
+            writer.writeStartElement(NS_A, "graphicData");
+            writer.writeAttribute("uri", TABLE_URI);
+            writer.writeStartElement(NS_A, "tbl");
+            writer.writeEmptyElement(NS_A, "tblPr");
+
+            writer.writeStartElement(NS_A, "tblGrid");
+            for (int column = 0; column < data.getColumnCount(); column++) {
+                writer.writeEmptyElement(NS_A, "gridCol");
+                writer.writeAttribute("w", emu(data.getColumnWidth(column)));
+            }
+            writer.writeEndElement();
+
+            String rowHeight = emu(ROW_HEIGHT);
+            for (int row = 0; row < data.getRowCount(); row++) {
+                writer.writeStartElement(NS_A, "tr");
+                writer.writeAttribute("h", rowHeight);
+                for (int column = 0; column < data.getColumnCount(); column++) {
+                    writeCell(writer, data.getText(row, column), data.getStyle(row, column), borders, row, column);
+                }
+                writer.writeEndElement();
+            }
+
+            writer.writeEndElement(); //tbl
+            writer.writeEndElement(); //graphicData
+            writer.writeEndElement(); //graphic
+            writer.writeEndElement(); //graphicFrame
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write table XML", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeCell(XMLStreamWriter writer, String text, CellStyle style, TableBorders borders, int row, int column) throws XMLStreamException {
+        writer.writeStartElement(NS_A, "tc");
+        if (borders.getRowSpan(row, column) > 1) {
+            writer.writeAttribute("rowSpan", Integer.toString(borders.getRowSpan(row, column)));
+        }
+        if (borders.getGridSpan(row, column) > 1) {
+            writer.writeAttribute("gridSpan", Integer.toString(borders.getGridSpan(row, column)));
+        }
+        if (borders.isHMerge(row, column)) {
+            writer.writeAttribute("hMerge", "true");
+        }
+        if (borders.isVMerge(row, column)) {
+            writer.writeAttribute("vMerge", "true");
+        }
+
+        //Text, with the defaults XSLF writes in a new text body, paragraph and run
+        writer.writeStartElement(NS_A, "txBody");
+        writer.writeEmptyElement(NS_A, "bodyPr");
+        writer.writeAttribute("anchor", "t");
+        writer.writeAttribute("rtlCol", "false");
+        writer.writeEmptyElement(NS_A, "lstStyle");
+        writer.writeStartElement(NS_A, "p");
+        writer.writeStartElement(NS_A, "pPr");
+        writer.writeAttribute("algn", toTextAlign(style.getTextAlign()));
+        writer.writeEmptyElement(NS_A, "defRPr");
+        writer.writeEndElement();
+        writer.writeStartElement(NS_A, "r");
+        writer.writeStartElement(NS_A, "rPr");
+        writer.writeAttribute("lang", "en-US");
+        writer.writeAttribute("sz", Integer.toString((int) Math.round(FONT_SIZE * 100)));
+        writer.writeAttribute("b", Boolean.toString(style.isBold()));
+        writer.writeAttribute("i", Boolean.toString(style.isItalic()));
+        if (style.getFontColor() != null) {
+            writeSolidFill(writer, style.getFontColor());
+        }
+        if (style.getFontName() != null) {
+            //Font of the group of the first character, like XSLFTextRun.setFontFamily
+            writer.writeEmptyElement(NS_A, toFontElement(FontGroup.getFontGroupFirst(text)));
+            writer.writeAttribute("typeface", style.getFontName());
+        }
+        writer.writeEndElement(); //rPr
+        writer.writeStartElement(NS_A, "t");
+        writer.writeCharacters(toXmlText(text));
+        writer.writeEndElement();
+        writer.writeEndElement(); //r
+        writer.writeEmptyElement(NS_A, "endParaRPr");
+        writer.writeAttribute("lang", "en-US");
+        writer.writeAttribute("sz", "1100");
+        writer.writeEndElement(); //p
+        writer.writeEndElement(); //txBody
+
+        //Cell properties : borders (schema order left, right, top, bottom) then fill
+        writer.writeStartElement(NS_A, "tcPr");
+        writer.writeAttribute("anchor", toAnchor(style.getVerticalAlign()));
+        writeBorder(writer, "lnL", borders.getEdge(row, column, TableBorders.LEFT));
+        writeBorder(writer, "lnR", borders.getEdge(row, column, TableBorders.RIGHT));
+        writeBorder(writer, "lnT", borders.getEdge(row, column, TableBorders.TOP));
+        writeBorder(writer, "lnB", borders.getEdge(row, column, TableBorders.BOTTOM));
+        if (style.getFillColor() != null) {
+            writeSolidFill(writer, style.getFillColor());
+        }
+        writer.writeEndElement(); //tcPr
+
+        writer.writeEndElement(); //tc
+    }
+
+    private static void writeBorder(XMLStreamWriter writer, String edgeName, int edge) throws XMLStreamException {
+        if (edge == TableBorders.ABSENT) {
+            return;
+        }
+        writer.writeStartElement(NS_A, edgeName);
+        if (edge == TableBorders.NO_FILL) {
+            writer.writeEmptyElement(NS_A, "noFill");
+            writer.writeEndElement();
+            return;
+        }
+        writer.writeAttribute("w", emu(BORDER_WIDTH));
+        writer.writeAttribute("cap", "flat");
+        writer.writeAttribute("cmpd", "sng");
+        writer.writeAttribute("algn", "ctr");
+        writer.writeStartElement(NS_A, "solidFill");
+        writer.writeEmptyElement(NS_A, "srgbClr");
+        writer.writeAttribute("val", toHex(edge));
+        writer.writeEndElement();
+        writer.writeEmptyElement(NS_A, "prstDash");
+        writer.writeAttribute("val", "solid");
+        writer.writeEmptyElement(NS_A, "round");
+        writer.writeEmptyElement(NS_A, "headEnd");
+        writer.writeAttribute("type", "none");
+        writer.writeAttribute("w", "med");
+        writer.writeAttribute("len", "med");
+        writer.writeEmptyElement(NS_A, "tailEnd");
+        writer.writeAttribute("type", "none");
+        writer.writeAttribute("w", "med");
+        writer.writeAttribute("len", "med");
+        writer.writeEndElement();
+    }
+
+    private static void writeSolidFill(XMLStreamWriter writer, Color color) throws XMLStreamException {
+        writer.writeStartElement(NS_A, "solidFill");
+        if (color.getAlpha() == 255) {
+            writer.writeEmptyElement(NS_A, "srgbClr");
+            writer.writeAttribute("val", toHex(color.getRGB() & 0xFFFFFF));
+        } else {
+            writer.writeStartElement(NS_A, "srgbClr");
+            writer.writeAttribute("val", toHex(color.getRGB() & 0xFFFFFF));
+            writer.writeEmptyElement(NS_A, "alpha");
+            writer.writeAttribute("val", Integer.toString(Math.round(color.getAlpha() * 100000f / 255)));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * @return the text with the characters XML does not allow (control characters, U+FFFE, U+FFFF, unpaired
+     * surrogates) replaced by "?", like XMLBeans does when it saves the XSLF table
+     */
+    static String toXmlText(String text) {
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            } else if (!(c == '\t' || c == '\n' || c == '\r' || c >= 0x20 && c <= 0xD7FF || c >= 0xE000 && c <= 0xFFFD)) {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                chars[i] = '?';
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+
+    private static String toHex(int rgb) {
+        char[] hex = new char[6];
+        for (int i = 5; i >= 0; i--) {
+            hex[i] = HEX[rgb & 0xF];
+            rgb >>= 4;
+        }
+        return new String(hex);
+    }
+
+    private static String emu(double points) {
+        return Long.toString(Units.toEMU(points));
+    }
+
+    private static String toFontElement(FontGroup fontGroup) {
+        return switch (fontGroup) {
+            case LATIN -> "latin";
+            case EAST_ASIAN -> "ea";
+            case SYMBOL -> "sym";
+            case COMPLEX_SCRIPT -> "cs";
+        };
+    }
+
+    private static String toAnchor(CellStyle.VerticalAlign verticalAlign) {
+        return switch (verticalAlign) {
+            case TOP -> "t";
+            case MIDDLE -> "ctr";
+            case BOTTOM -> "b";
+            case JUSTIFIED -> "just";
+            case DISTRIBUTED -> "dist";
+        };
+    }
+
+    private static String toTextAlign(CellStyle.TextAlign textAlign) {
+        return switch (textAlign) {
+            case LEFT -> "l";
+            case CENTER -> "ctr";
+            case RIGHT -> "r";
+            case JUSTIFY -> "just";
+            case JUSTIFY_LOW -> "justLow";
+            case DIST -> "dist";
+            case THAI_DIST -> "thaiDist";
+        };
+    }
+}
@@ -0,0 +1,179 @@
+package org.tdubuis.generator;
+
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.TableData;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * Final border and merge state of every cell of a table, computed from the {@link TableData} by (row, column)
+ * coordinates before any PPT object is created.
+ * Both generators use it instead of post-processing the PPT table : borders of the cell styles, left border copied on
+ * the right border of the previous cell (https://bz.apache.org/bugzilla/show_bug.cgi?id=69501), and borders of merged cells moved on the
+ * neighbour cell (https://bz.apache.org/bugzilla/show_bug.cgi?id=62431).
+ */
+public class TableBorders {
+    /** Edge without line element. */
+    public static final int ABSENT = -2;
+    /** Edge with a line without fill (default of a new cell). */
+    public static final int NO_FILL = -1;
+
+    /** Edges, in an internal order (not the one of TableCell.BorderEdge). */
+    public static final int TOP = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int LEFT = 3;
+
+    private final int rowCount;
+    private final int columnCount;
+    //RGB color of each edge of each cell (row major), or ABSENT / NO_FILL
+    private final int[][] edges = new int[4][];
+    private final int[] gridSpan;
+    private final int[] rowSpan;
+    private final boolean[] hMerge;
+    private final boolean[] vMerge;
+
+    public TableBorders(TableData data) {
+        this.rowCount = data.getRowCount();
+        this.columnCount = data.getColumnCount();
+        int size = rowCount * columnCount;
+        for (int edge = 0; edge < 4; edge++) {
+            edges[edge] = new int[size];
+            Arrays.fill(edges[edge], NO_FILL);
+        }
+        gridSpan = new int[size];
+        rowSpan = new int[size];
+        hMerge = new boolean[size];
+        vMerge = new boolean[size];
+
+        applyCellStyles(data);
+        applyMergedRegions(data);
+        moveBordersOfMergedCells();
+    }
+
+    private void applyCellStyles(TableData data) {
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                CellStyle style = data.getStyle(row, column);
+                int cell = index(row, column);
+                setColor(BOTTOM, cell, style.getBorderBottomColor());
+                setColor(TOP, cell, style.getBorderTopColor());
+                setColor(RIGHT, cell, style.getBorderRightColor());
+                if (style.getBorderLeftColor() != null && column > 0) {
+                    edges[RIGHT][cell - 1] = rgb(style.getBorderLeftColor());
+                }
+            }
+        }
+    }
+
+    private void applyMergedRegions(TableData data) {
+        for (int i = 0; i < data.getMergedRegionCount(); i++) {
+            int firstRow = data.getMergedFirstRow(i);
+            int lastRow = data.getMergedLastRow(i);
+            int firstColumn = data.getMergedFirstColumn(i);
+            int lastColumn = data.getMergedLastColumn(i);
+            int regionRowSpan = lastRow - firstRow + 1;
+            int regionColumnSpan = lastColumn - firstColumn + 1;
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int cell = index(row, column);
+                    if (regionRowSpan > 1) {
+                        if (row == firstRow) {
+                            rowSpan[cell] = regionRowSpan;
+                        } else {
+                            vMerge[cell] = true;
+                        }
+                    }
+                    if (regionColumnSpan > 1) {
+                        if (column == firstColumn) {
+                            gridSpan[cell] = regionColumnSpan;
+                        } else {
+                            hMerge[cell] = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Borders are not drawn on merged cells : the border of a merged cell is moved to the opposite edge of the
+     * neighbour cell. Cells are visited row by row, edges in the order top, right, bottom, left, each one being a
+     * constant time update.
+     */
+    private void moveBordersOfMergedCells() {
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                int cell = index(row, column);
+                if (!isMerged(cell)) {
+                    continue;
+                }
+                moveBorder(cell, TOP, row - 1, column, BOTTOM);
+                moveBorder(cell, RIGHT, row, column + 1, LEFT);
+                moveBorder(cell, BOTTOM, row + 1, column, TOP);
+                moveBorder(cell, LEFT, row, column - 1, RIGHT);
+            }
+        }
+    }
+
+    private void moveBorder(int cell, int edge, int neighbourRow, int neighbourColumn, int oppositeEdge) {
+        if (edges[edge][cell] < 0 || neighbourRow < 0 || neighbourRow >= rowCount || neighbourColumn < 0 || neighbourColumn >= columnCount) {
+            return;
+        }
+        edges[oppositeEdge][index(neighbourRow, neighbourColumn)] = edges[edge][cell];
+        edges[edge][cell] = ABSENT;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * @return RGB color of the edge, {@link #ABSENT} or {@link #NO_FILL}
+     */
+    public int getEdge(int row, int column, int edge) {
+        return edges[edge][index(row, column)];
+    }
+
+    public int getGridSpan(int row, int column) {
+        return gridSpan[index(row, column)];
+    }
+
+    public int getRowSpan(int row, int column) {
+        return rowSpan[index(row, column)];
+    }
+
+    public boolean isHMerge(int row, int column) {
+        return hMerge[index(row, column)];
+    }
+
+    public boolean isVMerge(int row, int column) {
+        return vMerge[index(row, column)];
+    }
+
+    /**
+     * Same as XSLFTableCell.isMerged : only the cells merged into another one, not the first cell of the region.
+     */
+    private boolean isMerged(int cell) {
+        return hMerge[cell] || vMerge[cell];
+    }
+
+    private void setColor(int edge, int cell, Color color) {
+        if (color != null) {
+            edges[edge][cell] = rgb(color);
+        }
+    }
+
+    private int index(int row, int column) {
+        return row * columnCount + column;
+    }
+
+    private static int rgb(Color color) {
+        return color.getRGB() & 0xFFFFFF;
+    }
+}
@@ -0,0 +1,33 @@
+package org.tdubuis.generator;
+
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.RunReport;
+import org.tdubuis.template.RegionDeck;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Add the table of a {@link TableData} on a slide of a region deck. One generator per worker thread.
+ */
+public interface TableGenerator extends Closeable {
+
+    /**
+     * @param textSize text size of the config entry, not applied : the text is written in 9 pt
+     */
+    void generateSlide(TableData data, RegionDeck deck, CompiledConfig.Anchor anchor, int textSize, int slidePos) throws IOException;
+
+    static TableGenerator forConfig(ConfigFile config) {
+        return forConfig(config, RunReport.NONE);
+    }
+
+    static TableGenerator forConfig(ConfigFile config, RunReport report) {
+        return config.getTableGeneratorOrDefault() == ConfigFile.TableGeneratorType.XSLF ? new XslfTableGenerator(report) : new DirectTableGenerator(report);
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,127 @@
+package org.tdubuis.generator;
+
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.sl.usermodel.TableCell;
+import org.apache.poi.sl.usermodel.TextParagraph;
+import org.apache.poi.sl.usermodel.VerticalAlignment;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTable;
+import org.apache.poi.xslf.usermodel.XSLFTableCell;
+import org.apache.poi.xslf.usermodel.XSLFTableRow;
+import org.apache.poi.xslf.usermodel.XSLFTextParagraph;
+import org.apache.poi.xslf.usermodel.XSLFTextRun;
+import org.openxmlformats.schemas.presentationml.x2006.main.CTGraphicalObjectFrame;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.Phase;
+import org.tdubuis.report.PhaseTimer;
+import org.tdubuis.report.RunReport;
+import org.tdubuis.template.RegionDeck;
+
+import java.awt.Color;
+import java.io.IOException;
+
+/**
+ * Build the tables with the XSLF model on a scratch slide, then copy them in the region deck.
+ * Borders are set once per cell from {@link TableBorders}, no pass over the XSLF table is needed after the merges.
+ * Not thread-safe : each worker owns its generator and its scratch XMLSlideShow.
+ */
+public class XslfTableGenerator implements TableGenerator {
+    private static final Logger logger = LogManager.getLogger(XslfTableGenerator.class);
+
+    private final XMLSlideShow scratchPpt = new XMLSlideShow();
+    private final XSLFSlide scratchSlide = scratchPpt.createSlide();
+    private final RunReport report;
+
+    public XslfTableGenerator(RunReport report) {
+        this.report = report;
+    }
+
+    @Override
+    public void generateSlide(@NonNull TableData data, @NonNull RegionDeck deck, @NonNull CompiledConfig.Anchor anchor, int textSize, int slidePos) {
+        logger.debug("Generate slide : {}", slidePos);
+
+        XSLFTable table = scratchSlide.createTable();
+        table.setAnchor(anchor.toRectangle());
+
+        //Final borders, with the fix of the left border (https://bz.apache.org/bugzilla/show_bug.cgi?id=69501)
+        //and of the borders of merged cells (https://bz.apache.org/bugzilla/show_bug.cgi?id=62431)
+        TableBorders borders;
+        try (PhaseTimer timer = report.start(Phase.FIX_BORDERS)) {
+            borders = new TableBorders(data);
+            timer.addTable(data);
+        }
+
+        //Add Data and Style
+        for (int row = 0; row < data.getRowCount(); row++) {
+            XSLFTableRow pptRow = table.addRow();
+            for (int column = 0; column < data.getColumnCount(); column++) {
+                XSLFTableCell pptCell = pptRow.addCell();
+                copyExcelCellToPptCell(pptCell, data.getText(row, column), data.getStyle(row, column));
+                applyBorders(pptCell, borders, row, column);
+            }
+        }
+        //Set Column width
+        for (int column = 0; column < data.getColumnCount(); column++) {
+            table.setColumnWidth(column, data.getColumnWidth(column));
+        }
+
+        //MergeRegion
+        for (int i = 0; i < data.getMergedRegionCount(); i++) {
+            table.mergeCells(data.getMergedFirstRow(i), data.getMergedLastRow(i), data.getMergedFirstColumn(i), data.getMergedLastColumn(i));
+        }
+
+        deck.addGraphicFrame(slidePos, (CTGraphicalObjectFrame) table.getXmlObject());
+        scratchSlide.removeShape(table);
+    }
+
+    /**
+     * Text and style of one cell, without the borders (see {@link TableBorders}).
+     */
+    public static void copyExcelCellToPptCell(XSLFTableCell pptCell, String text, CellStyle style) {
+        //BackgroundColor
+        if (style.getFillColor() != null) {
+            pptCell.setFillColor(style.getFillColor());
+        }
+        //VerticalAlignment
+        pptCell.setVerticalAlignment(VerticalAlignment.valueOf(style.getVerticalAlign().name()));
+
+        //Text
+        XSLFTextParagraph textParagraph = pptCell.addNewTextParagraph();
+        textParagraph.setTextAlign(TextParagraph.TextAlign.valueOf(style.getTextAlign().name()));
+        XSLFTextRun textRun = textParagraph.addNewTextRun();
+        textRun.setText(text);
+        textRun.setFontFamily(style.getFontName());
+        if (style.getFontColor() != null) {
+            textRun.setFontColor(style.getFontColor());
+        }
+        textRun.setFontSize(9d);
+        textRun.setBold(style.isBold());
+        textRun.setItalic(style.isItalic());
+    }
+
+    private void applyBorders(XSLFTableCell pptCell, TableBorders borders, int row, int column) {
+        applyBorder(pptCell, TableCell.BorderEdge.top, borders.getEdge(row, column, TableBorders.TOP));
+        applyBorder(pptCell, TableCell.BorderEdge.right, borders.getEdge(row, column, TableBorders.RIGHT));
+        applyBorder(pptCell, TableCell.BorderEdge.bottom, borders.getEdge(row, column, TableBorders.BOTTOM));
+        applyBorder(pptCell, TableCell.BorderEdge.left, borders.getEdge(row, column, TableBorders.LEFT));
+    }
+
+    private void applyBorder(XSLFTableCell pptCell, TableCell.BorderEdge borderEdge, int edge) {
+        if (edge == TableBorders.ABSENT) {
+            pptCell.removeBorder(borderEdge);
+        } else if (edge != TableBorders.NO_FILL) {
+            pptCell.setBorderColor(borderEdge, new Color(edge));
+            pptCell.setBorderWidth(borderEdge, 1);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scratchPpt.close();
+    }
+}
@@ -0,0 +1,381 @@
+package org.tdubuis.incremental;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.reader.ExcelReader;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Binary cache of the regions extracted from a workbook, so a workbook which did not change is not read with POI again
+ * (template or position changes). The cache file of a workbook is keyed by the SHA-256 of its content, the config
+ * titles, the reader, the default locale (formats) and the class files of the extraction code
+ * ({@link ExcelReader#getExtractionClasses()} and this class) : another key means other extracted regions, the
+ * workbook is read again and the cache file replaced. Strings and styles are written once in tables and referenced by index, the file is read through
+ * a memory mapping.
+ */
+public class ExtractCache {
+    private static final Logger logger = LogManager.getLogger(ExtractCache.class);
+
+    private static final int MAGIC = 0x58434348;
+    //Changes with the code of the cache file and of the extraction, no version to bump by hand
+    private static final byte[] CODE_VERSION = codeVersion();
+
+    private final File cacheFile;
+    private final byte[] key;
+
+    private ExtractCache(File cacheFile, byte[] key) {
+        this.cacheFile = cacheFile;
+        this.key = key;
+    }
+
+    /**
+     * Hash the workbook, to call before reading it.
+     * @param readerType reader extracting the regions when the cache can not be used
+     */
+    public static ExtractCache forWorkbook(File cacheFolder, File excelFile, ConfigFile config, Class<? extends ExcelReader> readerType) throws IOException {
+        MessageDigest digest = sha256();
+        //Not mapped : a mapping is only released by the GC and would lock the workbook on some systems
+        try (FileChannel channel = FileChannel.open(excelFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(256 * 1024);
+            while (channel.read(chunk) >= 0) {
+                digest.update(chunk.flip());
+                chunk.clear();
+            }
+        }
+        digest.update(CODE_VERSION);
+        putString(digest, readerType.getName());
+        //Locale of the cell formatters (FormatterRegistry)
+        putString(digest, Locale.getDefault(Locale.Category.FORMAT).toLanguageTag());
+        for (ConfigFile.Config entry : config.getConfig()) {
+            putString(digest, entry.getTitle());
+        }
+        byte[] key = digest.digest();
+
+        //One file per workbook path, the name is readable and two workbooks with the same name do not collide
+        String path = excelFile.getCanonicalPath();
+        String pathHash = HexFormat.of().formatHex(sha256().digest(path.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+        return new ExtractCache(new File(cacheFolder, excelFile.getName() + "-" + pathHash + ".extract"), key);
+    }
+
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @return regions of the cache file, null when there is no file for this key or when it can not be read
+     */
+    public List<ExcelData> load() {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            //The header is checked before mapping, a stale file is not mapped and can be replaced
+            int headerSize = 4 + key.length;
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                //Read until the header is complete or the end of the file
+            }
+            header.flip();
+            if (header.remaining() < headerSize || header.getInt() != MAGIC) {
+                logger.debug("Extract cache {} has another format", cacheFile.getName());
+                return null;
+            }
+            byte[] fileKey = new byte[key.length];
+            header.get(fileKey);
+            if (!Arrays.equals(fileKey, key)) {
+                logger.debug("Extract cache {} is for another workbook content, other titles, reader, locale or code", cacheFile.getName());
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, headerSize, channel.size() - headerSize);
+            return new Decoder(buffer).readRegions();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read extract cache {}, the workbook will be read", cacheFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the regions in a temporary file then move it, a crash never leaves a truncated cache file.
+     */
+    public void save(List<ExcelData> regions) throws IOException {
+        Files.createDirectories(cacheFile.getParentFile().toPath());
+        Path temp = Files.createTempFile(cacheFile.getParentFile().toPath(), cacheFile.getName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.write(key);
+                new Encoder(regions).write(out);
+            }
+            Files.move(temp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void putString(MessageDigest digest, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).flip());
+        digest.update(bytes);
+    }
+
+    /**
+     * @return SHA-256 of the class files of the extraction and of this class, member classes included
+     */
+    private static byte[] codeVersion() {
+        MessageDigest digest = sha256();
+        List<Class<?>> classes = new ArrayList<>(ExcelReader.getExtractionClasses());
+        classes.add(ExtractCache.class);
+        for (Class<?> type : classes) {
+            putClassFile(digest, type);
+        }
+        return digest.digest();
+    }
+
+    private static void putClassFile(MessageDigest digest, Class<?> type) {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Class file " + resource + " not found");
+            }
+            putString(digest, type.getName());
+            digest.update(in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read class file " + resource, e);
+        }
+        for (Class<?> member : type.getDeclaredClasses()) {
+            putClassFile(digest, member);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Layout : string table, style table, then the regions with their month and YTD tables.
+     */
+    private static class Encoder {
+        private final List<ExcelData> regions;
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final Map<CellStyle, Integer> styles = new LinkedHashMap<>();
+
+        private Encoder(List<ExcelData> regions) {
+            this.regions = regions;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            //First pass : the strings and styles referenced by the tables
+            for (ExcelData region : regions) {
+                index(region.getRegion());
+                indexTables(region.getDataMapMonth());
+                indexTables(region.getDataMapYTD());
+            }
+
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(styles.size());
+            for (CellStyle style : styles.keySet()) {
+                writeColor(out, style.getFillColor());
+                out.writeByte(style.getVerticalAlign() == null ? -1 : style.getVerticalAlign().ordinal());
+                out.writeByte(style.getTextAlign() == null ? -1 : style.getTextAlign().ordinal());
+                out.writeInt(index(style.getFontName()));
+                writeColor(out, style.getFontColor());
+                out.writeBoolean(style.isBold());
+                out.writeBoolean(style.isItalic());
+                writeColor(out, style.getBorderTopColor());
+                writeColor(out, style.getBorderBottomColor());
+                writeColor(out, style.getBorderRightColor());
+                writeColor(out, style.getBorderLeftColor());
+            }
+
+            out.writeInt(regions.size());
+            for (ExcelData region : regions) {
+                out.writeInt(index(region.getRegion()));
+                writeTables(out, region.getDataMapMonth());
+                writeTables(out, region.getDataMapYTD());
+            }
+        }
+
+        private void indexTables(Map<String, TableData> tables) {
+            if (tables == null) {
+                return;
+            }
+            for (Map.Entry<String, TableData> entry : tables.entrySet()) {
+                index(entry.getKey());
+                TableData table = entry.getValue();
+                for (int column = 0; column < table.getColumnCount(); column++) {
+                    for (int row = 0; row < table.getRowCount(); row++) {
+                        index(table.getText(row, column));
+                        CellStyle style = table.getStyle(row, column);
+                        index(style.getFontName());
+                        styles.putIfAbsent(style, styles.size());
+                    }
+                }
+            }
+        }
+
+        private void writeTables(DataOutputStream out, Map<String, TableData> tables) throws IOException {
+            if (tables == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(tables.size());
+            for (Map.Entry<String, TableData> entry : tables.entrySet()) {
+                TableData table = entry.getValue();
+                out.writeInt(index(entry.getKey()));
+                out.writeInt(table.getRowCount());
+                out.writeInt(table.getColumnCount());
+                for (int column = 0; column < table.getColumnCount(); column++) {
+                    out.writeFloat(table.getColumnWidth(column));
+                }
+                for (int column = 0; column < table.getColumnCount(); column++) {
+                    for (int row = 0; row < table.getRowCount(); row++) {
+                        out.writeInt(index(table.getText(row, column)));
+                        out.writeInt(styles.get(table.getStyle(row, column)));
+                    }
+                }
+                out.writeInt(table.getMergedRegionCount());
+                for (int i = 0; i < table.getMergedRegionCount(); i++) {
+                    out.writeInt(table.getMergedFirstRow(i));
+                    out.writeInt(table.getMergedLastRow(i));
+                    out.writeInt(table.getMergedFirstColumn(i));
+                    out.writeInt(table.getMergedLastColumn(i));
+                }
+            }
+        }
+
+        //Null strings are -1
+        private int index(String string) {
+            return string == null ? -1 : strings.computeIfAbsent(string, s -> strings.size());
+        }
+
+        private static void writeColor(DataOutputStream out, Color color) throws IOException {
+            out.writeBoolean(color != null);
+            if (color != null) {
+                out.writeInt(color.getRGB());
+            }
+        }
+    }
+
+    private static class Decoder {
+        private final ByteBuffer buffer;
+        private String[] strings;
+        private int[] styleIds;
+        //All the tables of the cache share one style table, as the tables of a workbook read
+        private final StyleTable styleTable = new StyleTable();
+
+        private Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private List<ExcelData> readRegions() {
+            strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            styleIds = new int[buffer.getInt()];
+            CellStyle.VerticalAlign[] verticalAligns = CellStyle.VerticalAlign.values();
+            CellStyle.TextAlign[] textAligns = CellStyle.TextAlign.values();
+            for (int i = 0; i < styleIds.length; i++) {
+                Color fillColor = readColor();
+                byte verticalAlignIndex = buffer.get();
+                byte textAlignIndex = buffer.get();
+                CellStyle.VerticalAlign verticalAlign = verticalAlignIndex < 0 ? null : verticalAligns[verticalAlignIndex];
+                CellStyle.TextAlign textAlign = textAlignIndex < 0 ? null : textAligns[textAlignIndex];
+                String fontName = string(buffer.getInt());
+                Color fontColor = readColor();
+                boolean bold = buffer.get() != 0;
+                boolean italic = buffer.get() != 0;
+                styleIds[i] = styleTable.intern(new CellStyle(fillColor, verticalAlign, textAlign, fontName, fontColor, bold, italic,
+                        readColor(), readColor(), readColor(), readColor()));
+            }
+
+            int regionCount = buffer.getInt();
+            List<ExcelData> regions = new ArrayList<>(regionCount);
+            for (int i = 0; i < regionCount; i++) {
+                ExcelData excelData = new ExcelData(string(buffer.getInt()));
+                excelData.setDataMapMonth(readTables());
+                excelData.setDataMapYTD(readTables());
+                regions.add(excelData);
+            }
+            return regions;
+        }
+
+        private HashMap<String, TableData> readTables() {
+            int tableCount = buffer.getInt();
+            if (tableCount < 0) {
+                return null;
+            }
+            HashMap<String, TableData> tables = new HashMap<>();
+            for (int i = 0; i < tableCount; i++) {
+                String title = string(buffer.getInt());
+                int rowCount = buffer.getInt();
+                int columnCount = buffer.getInt();
+                float[] columnWidths = new float[columnCount];
+                for (int column = 0; column < columnCount; column++) {
+                    columnWidths[column] = buffer.getFloat();
+                }
+                String[] texts = new String[Math.multiplyExact(rowCount, columnCount)];
+                int[] cellStyleIds = new int[texts.length];
+                for (int cell = 0; cell < texts.length; cell++) {
+                    texts[cell] = string(buffer.getInt());
+                    cellStyleIds[cell] = styleIds[buffer.getInt()];
+                }
+                int[] mergedRegions = new int[Math.multiplyExact(buffer.getInt(), 4)];
+                for (int j = 0; j < mergedRegions.length; j++) {
+                    mergedRegions[j] = buffer.getInt();
+                }
+                tables.put(title, new TableData(rowCount, columnCount, texts, cellStyleIds, columnWidths, mergedRegions, styleTable));
+            }
+            return tables;
+        }
+
+        private String string(int index) {
+            return index < 0 ? null : strings[index];
+        }
+
+        private Color readColor() {
+            return buffer.get() != 0 ? new Color(buffer.getInt(), true) : null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.tdubuis.incremental;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fingerprint of every deck present in the output folder by deck file name, as of the run which generated it.
+ * A region whose fingerprint did not change since that run and whose deck still exists does not need to be generated.
+ * Processes sharing an output folder (shards, work queue) merge their changes in the file on save, under an exclusive
+ * lock on regeneration-manifest.lock.
+ */
+public class RegenerationManifest {
+    private static final Logger logger = LogManager.getLogger(RegenerationManifest.class);
+
+    public static final String FILE_NAME = "regeneration-manifest.json";
+    private static final String LOCK_FILE_NAME = "regeneration-manifest.lock";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    //A file lock is held by the JVM, the threads of the process take it one at a time
+    private static final Object PROCESS_LOCK = new Object();
+
+    private Map<String, String> decks = new TreeMap<>();
+    //Fingerprints put (null when removed) since the load, applied on the file content on save
+    private transient Map<String, String> changes = new HashMap<>();
+
+    /**
+     * @return manifest of the folder, empty when there is none or when it can not be read
+     */
+    public static RegenerationManifest load(File outputFolder) {
+        File file = new File(outputFolder, FILE_NAME);
+        if (!file.isFile()) {
+            return new RegenerationManifest();
+        }
+        try {
+            RegenerationManifest manifest = GSON.fromJson(Files.readString(file.toPath()), RegenerationManifest.class);
+            if (manifest == null || manifest.decks == null) {
+                return new RegenerationManifest();
+            }
+            manifest.decks = new TreeMap<>(manifest.decks);
+            manifest.changes = new HashMap<>();
+            return manifest;
+        } catch (IOException | JsonParseException e) {
+            logger.warn("Could not read {}, every region will be generated", file.getAbsolutePath(), e);
+            return new RegenerationManifest();
+        }
+    }
+
+    public synchronized boolean isUpToDate(String deckName, String fingerprint, File deckFile) {
+        return fingerprint.equals(decks.get(deckName)) && deckFile.isFile();
+    }
+
+    public synchronized void put(String deckName, String fingerprint) {
+        decks.put(deckName, fingerprint);
+        changes.put(deckName, fingerprint);
+    }
+
+    public synchronized void remove(String deckName) {
+        decks.remove(deckName);
+        changes.put(deckName, null);
+    }
+
+    /**
+     * Apply the changes of this manifest on the file content, then write it in a temporary file and move it : a crash
+     * never leaves a truncated manifest, and the decks written by the other processes since the load are kept.
+     */
+    public synchronized void save(File outputFolder) throws IOException {
+        synchronized (PROCESS_LOCK) {
+            try (FileChannel channel = FileChannel.open(new File(outputFolder, LOCK_FILE_NAME).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, String> merged = load(outputFolder).decks;
+                changes.forEach((deckName, fingerprint) -> {
+                    if (fingerprint == null) {
+                        merged.remove(deckName);
+                    } else {
+                        merged.put(deckName, fingerprint);
+                    }
+                });
+                decks = merged;
+                changes.clear();
+
+                Path target = new File(outputFolder, FILE_NAME).toPath();
+                Path temp = Files.createTempFile(outputFolder.toPath(), FILE_NAME, ".tmp");
+                try {
+                    Files.writeString(temp, GSON.toJson(this));
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.tdubuis.incremental;
+
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.TableData;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * SHA-256 of everything a region deck is generated from : the tables of its config titles (texts, styles, column
+ * widths, merges), the config entries, the template and the generation settings.
+ * Styles are hashed by content, their ids depend on the order of the sheets in the workbook.
+ */
+public final class RegionFingerprint {
+    //To change when the generated decks change for the same input
+    private static final int FORMAT_VERSION = 1;
+
+    private final MessageDigest digest;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+    private RegionFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String compute(ExcelData excelData, ConfigFile config, String templateHash) {
+        RegionFingerprint fingerprint = new RegionFingerprint();
+        fingerprint.putInt(FORMAT_VERSION);
+        fingerprint.putString(templateHash);
+        fingerprint.putString(config.getTableGeneratorOrDefault().name());
+        fingerprint.putString(config.getExcelSuffix());
+        for (ConfigFile.Config entry : config.getConfig()) {
+            fingerprint.putConfig(entry);
+            fingerprint.putTable(get(excelData.getDataMapMonth(), entry.getTitle()));
+            fingerprint.putTable(get(excelData.getDataMapYTD(), entry.getTitle()));
+        }
+        return HexFormat.of().formatHex(fingerprint.digest.digest());
+    }
+
+    private static TableData get(Map<String, TableData> dataMap, String title) {
+        return dataMap == null ? null : dataMap.get(title);
+    }
+
+    private void putConfig(ConfigFile.Config entry) {
+        putString(entry.getTitle());
+        putInteger(entry.getSlideMonth());
+        putInteger(entry.getSlideYTD());
+        putInteger(entry.getTextSize());
+        ConfigFile.Position position = entry.getPosition();
+        putBoolean(position != null);
+        if (position != null) {
+            putInteger(position.getX());
+            putInteger(position.getY());
+            putInteger(position.getWidth());
+            putInteger(position.getHeight());
+        }
+    }
+
+    private void putTable(TableData data) {
+        putBoolean(data != null);
+        if (data == null) {
+            return;
+        }
+        putInt(data.getRowCount());
+        putInt(data.getColumnCount());
+        for (int column = 0; column < data.getColumnCount(); column++) {
+            putFloat(data.getColumnWidth(column));
+            for (int row = 0; row < data.getRowCount(); row++) {
+                putString(data.getText(row, column));
+                putStyle(data.getStyle(row, column));
+            }
+        }
+        putInt(data.getMergedRegionCount());
+        for (int i = 0; i < data.getMergedRegionCount(); i++) {
+            putInt(data.getMergedFirstRow(i));
+            putInt(data.getMergedLastRow(i));
+            putInt(data.getMergedFirstColumn(i));
+            putInt(data.getMergedLastColumn(i));
+        }
+    }
+
+    private void putStyle(CellStyle style) {
+        putColor(style.getFillColor());
+        putInt(style.getVerticalAlign().ordinal());
+        putInt(style.getTextAlign().ordinal());
+        putString(style.getFontName());
+        putColor(style.getFontColor());
+        putBoolean(style.isBold());
+        putBoolean(style.isItalic());
+        putColor(style.getBorderTopColor());
+        putColor(style.getBorderBottomColor());
+        putColor(style.getBorderRightColor());
+        putColor(style.getBorderLeftColor());
+    }
+
+    private void putColor(Color color) {
+        putBoolean(color != null);
+        if (color != null) {
+            putInt(color.getRGB());
+        }
+    }
+
+    //Strings and nullable values are prefixed, so two different inputs can not give the same byte sequence
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void putInteger(Integer value) {
+        putBoolean(value != null);
+        if (value != null) {
+            putInt(value);
+        }
+    }
+
+    private void putBoolean(boolean value) {
+        digest.update((byte) (value ? 1 : 0));
+    }
+
+    private void putInt(int value) {
+        buffer.clear();
+        buffer.putInt(value);
+        digest.update(buffer.array(), 0, 4);
+    }
+
+    private void putFloat(float value) {
+        putInt(Float.floatToIntBits(value));
+    }
+}
@@ -0,0 +1,83 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.incremental.ExtractCache;
+import org.tdubuis.report.Phase;
+import org.tdubuis.report.PhaseTimer;
+import org.tdubuis.report.RunReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Reader using the {@link ExtractCache} of the workbook : the regions are loaded from the cache when the workbook, the
+ * config titles, the reader, the locale and the extraction code did not change, else the workbook is read by the given
+ * reader and the cache written, unless a sheet could not be extracted.
+ */
+public class CachingExcelReader extends ExcelReader {
+    private static final Logger logger = LogManager.getLogger(CachingExcelReader.class);
+
+    private final ExcelReader workbookReader;
+    private final File cacheFolder;
+
+    public CachingExcelReader(ConfigFile config, RunReport report, ExcelReader workbookReader, File cacheFolder) {
+        super(config, report);
+        this.workbookReader = workbookReader;
+        this.cacheFolder = cacheFolder;
+    }
+
+    @Override
+    public void read(File excelFile, Consumer<ExcelData> onRegionRead, BooleanSupplier cancelled) throws IOException, InvalidFormatException {
+        ExtractCache cache;
+        List<ExcelData> cachedRegions;
+        try (PhaseTimer ignored = report.start(Phase.EXTRACT_CACHE)) {
+            cache = ExtractCache.forWorkbook(cacheFolder, excelFile, config, workbookReader.getClass());
+            cachedRegions = cache.load();
+        }
+        if (cachedRegions != null) {
+            logger.info("{} regions loaded from extract cache {}", cachedRegions.size(), cache.getCacheFile().getName());
+            report.putInfo("extractCache", "hit");
+            cachedRegions.forEach(onRegionRead);
+            return;
+        }
+
+        report.putInfo("extractCache", "miss");
+        //Called by one reader thread at a time
+        List<ExcelData> regions = new ArrayList<>();
+        RegionCollector collector = new RegionCollector(excelData -> {
+            regions.add(excelData);
+            onRegionRead.accept(excelData);
+        }, cancelled);
+        workbookReader.readSheets(excelFile, collector);
+        collector.finish(report);
+        if (collector.getFailedSheetCount() > 0) {
+            logger.warn("Extract cache not written, {} sheets could not be extracted", collector.getFailedSheetCount());
+            return;
+        }
+        try (PhaseTimer ignored = report.start(Phase.EXTRACT_CACHE)) {
+            cache.save(regions);
+            logger.debug("Extract cache {} written", cache.getCacheFile().getName());
+        } catch (IOException e) {
+            logger.warn("Could not write extract cache {}", cache.getCacheFile().getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStyleCacheMetrics() {
+        return workbookReader.getStyleCacheMetrics();
+    }
+
+    @Override
+    protected void readSheets(File excelFile, RegionCollector collector) throws IOException, InvalidFormatException {
+        workbookReader.readSheets(excelFile, collector);
+    }
+}
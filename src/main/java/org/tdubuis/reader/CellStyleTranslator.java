@@ -0,0 +1,108 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFont;
+import org.tdubuis.filedata.CellStyle;
+
+import java.awt.Color;
+
+/**
+ * Convert an Excel cell style to the {@link CellStyle} applied on PPT table cells.
+ */
+public class CellStyleTranslator {
+    private static final Logger logger = LogManager.getLogger(CellStyleTranslator.class);
+
+    private CellStyleTranslator() {
+    }
+
+    public static CellStyle translate(XSSFCellStyle excelStyle) {
+        //BackgroundColor
+        Color fillColor = null;
+        if (excelStyle.getFillForegroundColorColor() != null) {
+            int[] rgb = convertRGBByteToRGBInt(excelStyle.getFillForegroundColorColor().getRGB());
+            if (rgb.length > 0) {
+                fillColor = new Color(rgb[0], rgb[1], rgb[2]);
+            }
+        }
+
+        //Font
+        XSSFFont font = excelStyle.getFont();
+        Color fontColor = null;
+        CTFont ctFont = font.getCTFont();
+        if (ctFont.sizeOfColorArray() > 0 && ctFont.getColorArray(0).getRgb() != null) {
+            int[] fontRgb = convertRGBByteToRGBInt(ctFont.getColorArray(0).getRgb());
+            if (fontRgb.length == 4) {
+                fontColor = new Color(fontRgb[1], fontRgb[2], fontRgb[3], fontRgb[0]);
+            } else if (fontRgb.length == 3) {
+                fontColor = new Color(fontRgb[0], fontRgb[1], fontRgb[2]);
+            }
+        }
+
+        //Border
+        //Note : The left border is not applied on the cell (ApachePOI Bug), it is copied on the right border of the previous cell
+        return new CellStyle(
+                fillColor,
+                convertVerticalAlignment(excelStyle.getVerticalAlignment()),
+                convertHorizontalAlignment(excelStyle.getAlignment()),
+                font.getFontName(),
+                fontColor,
+                font.getBold(),
+                font.getItalic(),
+                getBorderColor(excelStyle.getBorderTop(), excelStyle.getTopBorderXSSFColor()),
+                getBorderColor(excelStyle.getBorderBottom(), excelStyle.getBottomBorderXSSFColor()),
+                getBorderColor(excelStyle.getBorderRight(), excelStyle.getRightBorderXSSFColor()),
+                getBorderColor(excelStyle.getBorderLeft(), excelStyle.getLeftBorderXSSFColor()));
+    }
+
+    /**
+     * @return null when there is no border, black when the border color has no RGB value (automatic color)
+     */
+    private static Color getBorderColor(BorderStyle borderStyle, XSSFColor borderColor) {
+        if (borderStyle == BorderStyle.NONE) {
+            return null;
+        }
+        int[] rgb = borderColor == null ? new int[0] : convertRGBByteToRGBInt(borderColor.getRGB());
+        return rgb.length > 0 ? new Color(rgb[0], rgb[1], rgb[2]) : Color.BLACK;
+    }
+
+    public static int[] convertRGBByteToRGBInt(byte[] b) {
+        if (b == null || (b.length != 3 && b.length != 4)) {
+            logger.error("Need exactly 3 or 4 bytes to get RGB int");
+            return new int[0];
+        }
+        int[] rgb = new int[b.length];
+        for (int i = 0; i < b.length; i++) {
+            rgb[i] = b[i] & 0xFF;
+        }
+        return rgb;
+    }
+
+    private static CellStyle.VerticalAlign convertVerticalAlignment(VerticalAlignment verticalAlignment) {
+        return switch (verticalAlignment) {
+            case CENTER -> CellStyle.VerticalAlign.MIDDLE;
+            case TOP -> CellStyle.VerticalAlign.TOP;
+            case BOTTOM -> CellStyle.VerticalAlign.BOTTOM;
+            case JUSTIFY -> CellStyle.VerticalAlign.JUSTIFIED;
+            case DISTRIBUTED -> CellStyle.VerticalAlign.DISTRIBUTED;
+        };
+    }
+
+    private static CellStyle.TextAlign convertHorizontalAlignment(HorizontalAlignment horizontalAlignment) {
+        return switch (horizontalAlignment) {
+            case CENTER, CENTER_SELECTION -> CellStyle.TextAlign.CENTER;
+            case DISTRIBUTED -> CellStyle.TextAlign.DIST;
+            case JUSTIFY -> CellStyle.TextAlign.JUSTIFY;
+            case LEFT -> CellStyle.TextAlign.LEFT;
+            case RIGHT -> CellStyle.TextAlign.RIGHT;
+            case FILL -> CellStyle.TextAlign.THAI_DIST;
+            case GENERAL -> CellStyle.TextAlign.JUSTIFY_LOW;
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package org.tdubuis.reader;
+
+/**
+ * Formatted text and style id of one Excel cell, as read by an {@link ExcelReader} before the block is built into a
+ * {@link org.tdubuis.filedata.TableData}.
+ */
+record ExcelCell(String text, int styleId) {
+}
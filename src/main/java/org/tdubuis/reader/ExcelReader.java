@@ -0,0 +1,125 @@
+package org.tdubuis.reader;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.format.DateFormatter;
+import org.tdubuis.format.FormatterRegistry;
+import org.tdubuis.format.GeneralFormatter;
+import org.tdubuis.format.NumberPatternFormatter;
+import org.tdubuis.report.RunReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Read the "REGION - MOIS" / "REGION - YTD" sheets of the workbook into one {@link ExcelData} per region.
+ */
+public abstract class ExcelReader {
+    protected final ConfigFile config;
+    protected final RunReport report;
+    private volatile Map<String, Object> styleCacheMetrics;
+
+    protected ExcelReader(ConfigFile config, RunReport report) {
+        this.config = config;
+        this.report = report;
+    }
+
+    public static ExcelReader forConfig(ConfigFile config) {
+        return forConfig(config, RunReport.NONE);
+    }
+
+    public static ExcelReader forConfig(ConfigFile config, RunReport report) {
+        ExcelReader reader = config.isStreamingExcelReader() ? new StreamingExcelReader(config, report) : new WorkbookExcelReader(config, report);
+        return config.getExtractCacheFolder() == null ? reader : new CachingExcelReader(config, report, reader, new File(config.getExtractCacheFolder()));
+    }
+
+    /**
+     * @return classes the extracted regions depend on : readers, cell formatters and table model, see
+     * {@link org.tdubuis.incremental.ExtractCache}
+     */
+    public static List<Class<?>> getExtractionClasses() {
+        return List.of(ExcelReader.class, WorkbookExcelReader.class, StreamingExcelReader.class, StreamingSheetHandler.class,
+                WorkbookPreScan.class, SheetBlockCollector.class, RegionCollector.class, MergedRegionIndex.class,
+                CellStyleTranslator.class, StyleTranslationCache.class, ExcelCell.class,
+                FormatterRegistry.class, GeneralFormatter.class, NumberPatternFormatter.class, DateFormatter.class,
+                ExcelData.class, TableData.class, StyleTable.class, CellStyle.class);
+    }
+
+    /**
+     * Extract the region sheets of the workbook : each sheet is claimed ({@link RegionCollector#claim}) before its
+     * extraction, then added to the collector, or given to {@link RegionCollector#failed} when its extraction fails or
+     * exceeds the time budget. {@link RegionCollector#checkCancelled} is called before each sheet. Can be called by
+     * several threads.
+     */
+    protected abstract void readSheets(File excelFile, RegionCollector collector) throws IOException, InvalidFormatException;
+
+    public Map<String, ExcelData> read(File excelFile) throws IOException, InvalidFormatException {
+        Map<String, ExcelData> excelDataMap = new LinkedHashMap<>();
+        read(excelFile, excelData -> excelDataMap.put(excelData.getRegion(), excelData));
+        return excelDataMap;
+    }
+
+    /**
+     * Read the workbook and give each region as soon as its MOIS and YTD sheets are read, so it can be generated while
+     * the next sheets are read. Regions missing a sheet are given at the end. onRegionRead is called by one thread at
+     * a time, not always the calling one.
+     */
+    public void read(File excelFile, Consumer<ExcelData> onRegionRead) throws IOException, InvalidFormatException {
+        read(excelFile, onRegionRead, () -> false);
+    }
+
+    /**
+     * Same as {@link #read(File, Consumer)}, cancelled being checked before each sheet : the read then stops with a
+     * CancellationException.
+     */
+    public void read(File excelFile, Consumer<ExcelData> onRegionRead, BooleanSupplier cancelled) throws IOException, InvalidFormatException {
+        RegionCollector collector = new RegionCollector(onRegionRead, cancelled);
+        readSheets(excelFile, collector);
+        collector.finish(report);
+    }
+
+    /**
+     * @return metrics of the style translation cache of the last read, null when no sheet was read (regions loaded from
+     * the extract cache)
+     */
+    public Map<String, Object> getStyleCacheMetrics() {
+        return styleCacheMetrics;
+    }
+
+    /**
+     * Keep and log the metrics of the style cache once every sheet is read.
+     */
+    protected void styleCacheDone(StyleTranslationCache styleCache) {
+        styleCacheMetrics = styleCache.getMetrics();
+        styleCache.logStatistics();
+    }
+
+    /**
+     * @param startNanos start of the extraction of the sheet
+     * @throws TimeoutException when the extraction exceeds the time budget of the config
+     */
+    static void checkSheetBudget(ConfigFile config, String sheetName, long startNanos) throws TimeoutException {
+        long budget = config.getRegionTimeoutNanos();
+        if (budget > 0 && System.nanoTime() - startNanos > budget) {
+            throw new TimeoutException("Extraction of sheet " + sheetName + " over its time budget of " + config.getRegionTimeoutSeconds() + " s");
+        }
+    }
+
+    protected static ExcelCell toTextCell(String text, StyleTranslationCache.TranslatedStyle style) {
+        return new ExcelCell(text, style.styleId());
+    }
+
+    protected static ExcelCell toNumericCell(double value, StyleTranslationCache.TranslatedStyle style) {
+        return new ExcelCell(FormatterRegistry.format(style.formatter(), value), style.styleId());
+    }
+}
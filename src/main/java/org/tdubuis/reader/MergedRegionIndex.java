@@ -0,0 +1,48 @@
+package org.tdubuis.reader;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merged regions of one sheet bucketed by row, built once per sheet.
+ * Merged regions never overlap, so the regions of a row are sorted by first column and a row lookup is a single get.
+ */
+class MergedRegionIndex {
+    private static final int[] NO_REGION = new int[0];
+
+    private final List<CellRangeAddress> mergedRegions;
+    //Region indexes crossing each row, sorted by first column
+    private final Map<Integer, int[]> regionsByRow = new HashMap<>();
+
+    MergedRegionIndex(List<CellRangeAddress> mergedRegions) {
+        this.mergedRegions = mergedRegions;
+        Map<Integer, List<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < mergedRegions.size(); i++) {
+            CellRangeAddress mergedRegion = mergedRegions.get(i);
+            for (int row = mergedRegion.getFirstRow(); row <= mergedRegion.getLastRow(); row++) {
+                buckets.computeIfAbsent(row, r -> new ArrayList<>()).add(i);
+            }
+        }
+        for (Map.Entry<Integer, List<Integer>> bucket : buckets.entrySet()) {
+            regionsByRow.put(bucket.getKey(), bucket.getValue().stream()
+                    .sorted((a, b) -> Integer.compare(mergedRegions.get(a).getFirstColumn(), mergedRegions.get(b).getFirstColumn()))
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+        }
+    }
+
+    CellRangeAddress get(int regionIndex) {
+        return mergedRegions.get(regionIndex);
+    }
+
+    /**
+     * @return indexes of the regions crossing the row, sorted by first column
+     */
+    int[] getRegionsInRow(int row) {
+        return regionsByRow.getOrDefault(row, NO_REGION);
+    }
+}
@@ -0,0 +1,158 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.RunReport;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Merge the extracted sheets into one {@link ExcelData} per region, the MOIS and YTD halves being set atomically.
+ * A region is given to the consumer as soon as both its sheets are merged. Malformed sheet names and sheets of a
+ * region and type already read are recorded as sheet errors and skipped, the other sheets go on. So are the sheets
+ * whose extraction failed or timed out, their region is given without them.
+ * Thread-safe, the consumer is called by one thread at a time.
+ */
+class RegionCollector {
+    private static final Logger logger = LogManager.getLogger(RegionCollector.class);
+
+    /**
+     * Region and type of a "REGION - MOIS" / "REGION - YTD" sheet.
+     */
+    record SheetKey(String region, boolean month) {
+        /**
+         * @return null when the name is not "REGION - MOIS" or "REGION - YTD", the region can contain dashes
+         */
+        static SheetKey parse(String sheetName) {
+            int separator = sheetName.lastIndexOf('-');
+            if (separator < 0) {
+                return null;
+            }
+            String region = sheetName.substring(0, separator).trim();
+            String sheetSlide = sheetName.substring(separator + 1).trim();
+            if (region.isEmpty()) {
+                return null;
+            }
+            return switch (sheetSlide) {
+                case "MOIS" -> new SheetKey(region, true);
+                case "YTD" -> new SheetKey(region, false);
+                default -> null;
+            };
+        }
+    }
+
+    private final Consumer<ExcelData> onRegionRead;
+    private final BooleanSupplier cancelled;
+    private final Object consumerLock = new Object();
+    private final Map<String, ExcelData> regions = new ConcurrentHashMap<>();
+    private final Map<SheetKey, String> claimedSheets = new ConcurrentHashMap<>();
+    private final Set<String> readRegions = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> sheetErrors = new ConcurrentHashMap<>();
+    private final AtomicInteger failedSheets = new AtomicInteger();
+
+    RegionCollector(Consumer<ExcelData> onRegionRead, BooleanSupplier cancelled) {
+        this.onRegionRead = onRegionRead;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * To call before extracting a sheet.
+     * @throws CancellationException when the read is cancelled
+     */
+    void checkCancelled() {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("Read cancelled");
+        }
+    }
+
+    /**
+     * To call before extracting a sheet.
+     * @return true when the sheet is a region sheet not read yet
+     */
+    boolean claim(String sheetName) {
+        SheetKey key = SheetKey.parse(sheetName);
+        if (key == null) {
+            sheetError(sheetName, "Sheet name is not \"REGION - MOIS\" or \"REGION - YTD\"");
+            return false;
+        }
+        String firstSheet = claimedSheets.putIfAbsent(key, sheetName);
+        if (firstSheet != null) {
+            sheetError(sheetName, "Same region and type as sheet \"" + firstSheet + "\"");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Merge a sheet claimed by {@link #claim}.
+     */
+    void add(String sheetName, HashMap<String, TableData> dataMap) {
+        SheetKey key = SheetKey.parse(sheetName);
+        boolean[] complete = new boolean[1];
+        ExcelData excelData = regions.compute(key.region(), (region, previous) -> {
+            ExcelData merged = previous == null ? new ExcelData(region) : previous;
+            if (key.month()) {
+                merged.setDataMapMonth(dataMap);
+            } else {
+                merged.setDataMapYTD(dataMap);
+            }
+            //Each half is set once, only the thread merging the second one sees both
+            complete[0] = merged.getDataMapMonth() != null && merged.getDataMapYTD() != null;
+            return merged;
+        });
+        if (complete[0]) {
+            emit(excelData);
+        }
+    }
+
+    /**
+     * A sheet claimed by {@link #claim} whose extraction failed : recorded as a sheet error, its region is given
+     * without it at the end.
+     */
+    void failed(String sheetName, Throwable error) {
+        logger.warn("Extraction of sheet \"{}\" failed", sheetName, error);
+        failedSheets.incrementAndGet();
+        sheetError(sheetName, "Extraction failed : " + error);
+    }
+
+    /**
+     * @return sheets given to {@link #failed}, the read is then not complete
+     */
+    int getFailedSheetCount() {
+        return failedSheets.get();
+    }
+
+    /**
+     * Give the regions missing a sheet, then log the sheet errors and put them in the report.
+     */
+    void finish(RunReport report) {
+        regions.values().forEach(this::emit);
+        if (!sheetErrors.isEmpty()) {
+            Map<String, String> sortedErrors = new TreeMap<>(sheetErrors);
+            sortedErrors.forEach((sheetName, error) -> logger.error("Sheet \"{}\" skipped : {}", sheetName, error));
+            report.putInfo("sheetErrors", sortedErrors);
+        }
+    }
+
+    private void emit(ExcelData excelData) {
+        if (readRegions.add(excelData.getRegion())) {
+            synchronized (consumerLock) {
+                onRegionRead.accept(excelData);
+            }
+        }
+    }
+
+    private void sheetError(String sheetName, String error) {
+        sheetErrors.put(sheetName, error);
+    }
+}
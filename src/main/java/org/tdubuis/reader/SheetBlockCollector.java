@@ -0,0 +1,201 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Cut the rows of one sheet into blocks : a block starts at a row whose first cell contains a config title and ends at
+ * the row "RRF". Rows are pushed in sheet order, blocks are built into {@link TableData} once the whole sheet has been
+ * read and its merged regions are known.
+ */
+class SheetBlockCollector {
+    private static final Logger logger = LogManager.getLogger(SheetBlockCollector.class);
+
+    private final ConfigFile config;
+    private final String sheetName;
+    private final IntFunction<Float> columnWidthInPixels;
+    private final StyleTable styleTable;
+    private final Map<String, Block> blocks = new LinkedHashMap<>();
+    private Block currentBlock;
+    private boolean ended;
+
+    private static class Block {
+        private final List<List<ExcelCell>> rows = new ArrayList<>();
+        private final List<Integer> rowIndexes = new ArrayList<>();
+        //Cell count of every row before removing the empty end cells, used to find the merged regions
+        private final List<Integer> rowSizes = new ArrayList<>();
+        private int columnCount = -1;
+    }
+
+    SheetBlockCollector(ConfigFile config, String sheetName, IntFunction<Float> columnWidthInPixels, StyleTable styleTable) {
+        this.config = config;
+        this.sheetName = sheetName;
+        this.columnWidthInPixels = columnWidthInPixels;
+        this.styleTable = styleTable;
+    }
+
+    /**
+     * @param rowIndex index of the row in the sheet
+     * @param text text of the first cell of the row
+     * @param cells every cell of the row, from column 0
+     * @return false when the rest of the sheet does not contain any block
+     */
+    boolean addRow(int rowIndex, String text, List<ExcelCell> cells) {
+        if (ended) {
+            return false;
+        }
+        String configTitle = config.isAndReturnConfigTitle(text);
+        boolean endOfTable = text.trim().equalsIgnoreCase("RRF");
+
+        if (configTitle != null) {
+            currentBlock = new Block();
+            blocks.put(configTitle, currentBlock);
+            return true;
+        }
+
+        if (currentBlock == null) {
+            logger.warn("No currentConfigTitle but not the end of file : {}", sheetName);
+            ended = true;
+            return false;
+        }
+
+        currentBlock.rows.add(cells);
+        currentBlock.rowIndexes.add(rowIndex);
+        currentBlock.rowSizes.add(cells.size());
+
+        if (endOfTable) {
+            currentBlock.columnCount = getColumnCountWithoutEmptyEndCell(currentBlock);
+            currentBlock = null;
+        }
+        return true;
+    }
+
+    /**
+     * The readers never give the last row of a sheet to {@link #addRow}, like the XSSFWorkbook loop of the first
+     * version (getLastRowNum used as an exclusive bound). Kept so the decks do not change, but a dropped row with content
+     * is logged : it is often the "RRF" row or the last data row of a block.
+     * @param rowIndex index of the last row in the sheet
+     * @param cells every cell of the last row, from column 0
+     */
+    void lastRowSkipped(int rowIndex, List<ExcelCell> cells) {
+        if (!ended && cells.stream().anyMatch(cell -> !cell.text().isBlank())) {
+            logger.warn("Last row {} of sheet {} is not empty but is not read, its content is missing from the decks", rowIndex + 1, sheetName);
+        }
+    }
+
+    /**
+     * @param mergedRegions every merged region of the sheet
+     * @return tables by config title
+     */
+    HashMap<String, TableData> finish(List<CellRangeAddress> mergedRegions) {
+        MergedRegionIndex mergedRegionIndex = new MergedRegionIndex(mergedRegions);
+        HashMap<String, TableData> dataMap = new HashMap<>();
+        for (Map.Entry<String, Block> entry : blocks.entrySet()) {
+            dataMap.put(entry.getKey(), buildTable(entry.getValue(), mergedRegionIndex));
+        }
+        return dataMap;
+    }
+
+    private TableData buildTable(Block block, MergedRegionIndex mergedRegionIndex) {
+        int rowCount = block.rows.size();
+        int columnCount = block.columnCount;
+        if (columnCount < 0) {
+            //Block not ended by "RRF" : keep every cell
+            columnCount = block.rowSizes.stream().mapToInt(Integer::intValue).max().orElse(0);
+        }
+
+        //Rows shorter than the table are completed with empty cells
+        int emptyStyleId = styleTable.intern(CellStyle.EMPTY);
+        String[] texts = new String[rowCount * columnCount];
+        int[] styleIds = new int[rowCount * columnCount];
+        for (int row = 0; row < rowCount; row++) {
+            List<ExcelCell> cells = block.rows.get(row);
+            for (int column = 0; column < columnCount; column++) {
+                ExcelCell cell = column < cells.size() ? cells.get(column) : null;
+                texts[column * rowCount + row] = cell != null ? cell.text() : "";
+                styleIds[column * rowCount + row] = cell != null ? cell.styleId() : emptyStyleId;
+            }
+        }
+
+        float[] columnWidths = new float[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            columnWidths[column] = columnWidthInPixels.apply(column);
+        }
+
+        return new TableData(rowCount, columnCount, texts, styleIds, columnWidths, getMergedRegions(block, columnCount, mergedRegionIndex), styleTable);
+    }
+
+    /**
+     * Merged regions containing a cell of the block, shifted so the first cell of the block is (0, 0) and clipped to
+     * the table.
+     */
+    private static int[] getMergedRegions(Block block, int columnCount, MergedRegionIndex mergedRegionIndex) {
+        if (block.rows.isEmpty()) {
+            return new int[0];
+        }
+        int rowShift = block.rowIndexes.get(0);
+        int rowCount = block.rows.size();
+        //A region crossing several rows of the block is only kept once
+        Set<Integer> seenRegions = new HashSet<>();
+        List<CellRangeAddress> blockMergedRegions = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            int rowSize = block.rowSizes.get(row);
+            for (int regionIndex : mergedRegionIndex.getRegionsInRow(block.rowIndexes.get(row))) {
+                CellRangeAddress mergedRegion = mergedRegionIndex.get(regionIndex);
+                if (mergedRegion.getFirstColumn() >= rowSize) {
+                    break;
+                }
+                if (seenRegions.add(regionIndex)) {
+                    blockMergedRegions.add(mergedRegion);
+                }
+            }
+        }
+
+        int[] packed = new int[blockMergedRegions.size() * 4];
+        int size = 0;
+        for (CellRangeAddress mergedRegion : blockMergedRegions) {
+            int firstRow = Math.max(mergedRegion.getFirstRow() - rowShift, 0);
+            int lastRow = Math.min(mergedRegion.getLastRow() - rowShift, rowCount - 1);
+            int firstColumn = mergedRegion.getFirstColumn();
+            int lastColumn = Math.min(mergedRegion.getLastColumn(), columnCount - 1);
+            if (firstColumn > lastColumn || (firstRow == lastRow && firstColumn == lastColumn)) {
+                continue;
+            }
+            packed[size++] = firstRow;
+            packed[size++] = lastRow;
+            packed[size++] = firstColumn;
+            packed[size++] = lastColumn;
+        }
+        return size == packed.length ? packed : Arrays.copyOf(packed, size);
+    }
+
+    private static int getColumnCountWithoutEmptyEndCell(Block block) {
+        int lastIndexWithValue = 0;
+        for (List<ExcelCell> row : block.rows) {
+            for (int i = row.size() - 1; i >= 0; i--) {
+                if (!row.get(i).text().isBlank()) {
+                    if (lastIndexWithValue < i) {
+                        lastIndexWithValue = i;
+                    }
+                    break;
+                }
+            }
+        }
+        return lastIndexWithValue + 1;
+    }
+}
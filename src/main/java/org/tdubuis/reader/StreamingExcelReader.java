@@ -0,0 +1,202 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.Phase;
+import org.tdubuis.report.PhaseTimer;
+import org.tdubuis.report.RunReport;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read the workbook with the POI event API : sheets are streamed through a SAX handler and only the rows belonging to
+ * a config title block are kept, so the memory used depends on the extracted tables and not on the workbook size.
+ * With several reader threads, each thread opens its own package and styles (POI objects are not thread-safe) and
+ * takes the sheets from a shared queue, largest first. The shared strings are read-only and shared by all threads.
+ */
+public class StreamingExcelReader extends ExcelReader {
+    private static final Logger logger = LogManager.getLogger(StreamingExcelReader.class);
+
+    private record SheetRef(String name, PackagePartName partName, long size) {
+    }
+
+    public StreamingExcelReader(ConfigFile config, RunReport report) {
+        super(config, report);
+    }
+
+    @Override
+    protected void readSheets(File excelFile, RegionCollector collector) throws IOException, InvalidFormatException {
+        OPCPackage pkg = null;
+        try {
+            XSSFReader reader;
+            SharedStrings sharedStrings;
+            StylesTable styles;
+            try (PhaseTimer ignored = report.start(Phase.LOAD_WORKBOOK)) {
+                pkg = OPCPackage.open(excelFile, PackageAccess.READ);
+                reader = new XSSFReader(pkg);
+                sharedStrings = new ReadOnlySharedStringsTable(pkg);
+                styles = reader.getStylesTable();
+            }
+            StyleTranslationCache styleCache = new StyleTranslationCache(new StyleTable());
+
+            //Sheets are claimed in workbook order, the first of two sheets with the same region and type is kept
+            List<SheetRef> sheetRefs = new ArrayList<>();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            int numberOfSheet = 0;
+            while (sheets.hasNext()) {
+                try (InputStream ignored = sheets.next()) {
+                    PackagePart part = sheets.getSheetPart();
+                    if (collector.claim(sheets.getSheetName())) {
+                        sheetRefs.add(new SheetRef(sheets.getSheetName(), part.getPartName(), part.getSize()));
+                    }
+                }
+                numberOfSheet++;
+            }
+            logger.info("{} sheets found", numberOfSheet);
+
+            int readerThreads = Math.min(config.getReaderThreadsOrDefault(), sheetRefs.size());
+            if (readerThreads <= 1) {
+                extractSheets(new ConcurrentLinkedQueue<>(sheetRefs), pkg, sharedStrings, styles, styleCache, collector);
+            } else {
+                sheetRefs.sort(Comparator.comparingLong(SheetRef::size).reversed());
+                extractInParallel(excelFile, new ConcurrentLinkedQueue<>(sheetRefs), readerThreads, sharedStrings, styleCache, collector);
+            }
+            styleCacheDone(styleCache);
+        } catch (InvalidFormatException e) {
+            throw e;
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not stream workbook " + excelFile.getName(), e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    private void extractInParallel(File excelFile, Queue<SheetRef> queue, int readerThreads, SharedStrings sharedStrings, StyleTranslationCache styleCache, RegionCollector collector) throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(readerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sheet-reader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < readerThreads; i++) {
+                futures.add(readers.submit(() -> {
+                    OPCPackage threadPkg = null;
+                    try {
+                        StylesTable threadStyles;
+                        try (PhaseTimer ignored = report.start(Phase.LOAD_WORKBOOK)) {
+                            threadPkg = OPCPackage.open(excelFile, PackageAccess.READ);
+                            threadStyles = new XSSFReader(threadPkg).getStylesTable();
+                        }
+                        extractSheets(queue, threadPkg, sharedStrings, threadStyles, styleCache, collector);
+                    } catch (Exception | Error e) {
+                        //Stop the other threads, the read fails
+                        queue.clear();
+                        throw e;
+                    } finally {
+                        if (threadPkg != null) {
+                            threadPkg.revert();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Throwable failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failure = failure == null ? e.getCause() : failure;
+                }
+            }
+            if (failure != null) {
+                rethrow(failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading sheets", e);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private void extractSheets(Queue<SheetRef> queue, OPCPackage pkg, SharedStrings sharedStrings, StylesTable styles, StyleTranslationCache styleCache, RegionCollector collector) throws IOException, SAXException, ParserConfigurationException {
+        SheetRef sheet;
+        while ((sheet = queue.poll()) != null) {
+            collector.checkCancelled();
+            PackagePart part = pkg.getPart(sheet.partName());
+            if (part == null) {
+                throw new IOException("Sheet part not found : " + sheet.partName());
+            }
+            HashMap<String, TableData> dataMap;
+            try (InputStream sheetStream = part.getInputStream(); PhaseTimer timer = report.start(Phase.EXTRACT_SHEET, sheet.name(), null)) {
+                dataMap = readSheet(sheet.name(), sheetStream, sharedStrings, styles, styleCache);
+                dataMap.values().forEach(timer::addTable);
+            } catch (SAXException | RuntimeException e) {
+                //A malformed or too slow sheet is skipped, the other sheets go on
+                collector.failed(sheet.name(), e instanceof SAXException && e.getCause() != null ? e.getCause() : e);
+                continue;
+            }
+            collector.add(sheet.name(), dataMap);
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        if (failure instanceof IOException e) {
+            throw e;
+        } else if (failure instanceof OpenXML4JException e) {
+            throw e;
+        } else if (failure instanceof SAXException e) {
+            throw e;
+        } else if (failure instanceof ParserConfigurationException e) {
+            throw e;
+        } else if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        }
+        throw new IOException(failure);
+    }
+
+    private HashMap<String, TableData> readSheet(String sheetName, InputStream sheetStream, SharedStrings sharedStrings, StylesTable styles, StyleTranslationCache styleCache) throws IOException, SAXException, ParserConfigurationException {
+        StreamingSheetHandler handler = new StreamingSheetHandler(config, sheetName, sharedStrings, styles, styleCache);
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(sheetStream));
+        return handler.getDataMap();
+    }
+}
@@ -0,0 +1,187 @@
+package org.tdubuis.reader;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.Units;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.TableData;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SAX handler of one worksheet part. Rows are given to a {@link SheetBlockCollector} as soon as they are read,
+ * merged regions are resolved at the end of the sheet (mergeCells comes after sheetData).
+ * Formulas use their cached value. The time budget of the config is checked after each row.
+ */
+class StreamingSheetHandler extends DefaultHandler {
+    private static final double DEFAULT_COLUMN_WIDTH = 8;
+
+    private final ConfigFile config;
+    private final String sheetName;
+    private final long startNanos = System.nanoTime();
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final StyleTranslationCache styleCache;
+    private final SheetBlockCollector collector;
+    private final List<CellRangeAddress> mergedRegions = new ArrayList<>();
+    //Column width in characters by first column of the <col> element
+    private final TreeMap<Integer, double[]> columnWidths = new TreeMap<>();
+    private double defaultColumnWidth = DEFAULT_COLUMN_WIDTH;
+    private HashMap<String, TableData> dataMap;
+
+    private boolean ended;
+    private int rowIndex = -1;
+    private TreeMap<Integer, ExcelCell> rowCells;
+    private String rowText;
+    //Like the XSSFWorkbook reader, the last row of the sheet is never read, see SheetBlockCollector.lastRowSkipped
+    private int pendingRowIndex;
+    private TreeMap<Integer, ExcelCell> pendingRowCells;
+    private String pendingRowText;
+
+    private int columnIndex;
+    private String cellType;
+    private int cellStyleIndex;
+    private boolean readingValue;
+    private final StringBuilder value = new StringBuilder();
+
+    StreamingSheetHandler(ConfigFile config, String sheetName, SharedStrings sharedStrings, StylesTable styles, StyleTranslationCache styleCache) {
+        this.config = config;
+        this.sheetName = sheetName;
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.styleCache = styleCache;
+        this.collector = new SheetBlockCollector(config, sheetName, this::getColumnWidthInPixels, styleCache.getStyleTable());
+    }
+
+    HashMap<String, TableData> getDataMap() {
+        return dataMap;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "sheetFormatPr" -> {
+                String baseColWidth = attributes.getValue("baseColWidth");
+                if (baseColWidth != null) {
+                    defaultColumnWidth = (int) Double.parseDouble(baseColWidth);
+                }
+            }
+            case "col" -> {
+                String width = attributes.getValue("width");
+                if (width != null) {
+                    int min = Integer.parseInt(attributes.getValue("min")) - 1;
+                    int max = Integer.parseInt(attributes.getValue("max")) - 1;
+                    columnWidths.put(min, new double[]{max, Double.parseDouble(width)});
+                }
+            }
+            case "row" -> {
+                String r = attributes.getValue("r");
+                rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                rowCells = new TreeMap<>();
+                rowText = "";
+                columnIndex = -1;
+            }
+            case "c" -> {
+                String r = attributes.getValue("r");
+                columnIndex = r != null ? new CellReference(r).getCol() : columnIndex + 1;
+                cellType = attributes.getValue("t");
+                String s = attributes.getValue("s");
+                cellStyleIndex = s != null ? Integer.parseInt(s) : 0;
+                value.setLength(0);
+            }
+            case "v", "t" -> readingValue = true;
+            case "mergeCell" -> mergedRegions.add(CellRangeAddress.valueOf(attributes.getValue("ref")));
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (readingValue) {
+            value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "v", "t" -> readingValue = false;
+            case "c" -> {
+                if (!ended) {
+                    addCell();
+                }
+            }
+            case "row" -> {
+                if (pendingRowCells != null && !ended) {
+                    ended = !collector.addRow(pendingRowIndex, pendingRowText, toCellRow(pendingRowCells));
+                }
+                pendingRowIndex = rowIndex;
+                pendingRowCells = rowCells;
+                pendingRowText = rowText;
+                try {
+                    ExcelReader.checkSheetBudget(config, sheetName, startNanos);
+                } catch (TimeoutException e) {
+                    throw new SAXException(e);
+                }
+            }
+            case "worksheet" -> {
+                if (pendingRowCells != null) {
+                    collector.lastRowSkipped(pendingRowIndex, toCellRow(pendingRowCells));
+                }
+                dataMap = collector.finish(mergedRegions);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void addCell() {
+        StyleTranslationCache.TranslatedStyle style = styleCache.get(cellStyleIndex, styles::getStyleAt);
+        String text = value.toString();
+        ExcelCell cell;
+        if (cellType == null || cellType.equals("n")) {
+            cell = text.isEmpty() ? ExcelReader.toTextCell(text, style) : ExcelReader.toNumericCell(Double.parseDouble(text), style);
+        } else if (cellType.equals("s")) {
+            text = sharedStrings.getItemAt(Integer.parseInt(text)).getString();
+            cell = ExcelReader.toTextCell(text, style);
+        } else if (cellType.equals("b")) {
+            cell = ExcelReader.toTextCell(text.equals("1") ? "TRUE" : "FALSE", style);
+        } else {
+            cell = ExcelReader.toTextCell(text, style);
+        }
+        if (columnIndex == 0 && (cellType != null && (cellType.equals("s") || cellType.equals("inlineStr") || cellType.equals("str")))) {
+            rowText = text;
+        }
+        rowCells.put(columnIndex, cell);
+    }
+
+    private List<ExcelCell> toCellRow(TreeMap<Integer, ExcelCell> cells) {
+        List<ExcelCell> cellRow = new ArrayList<>();
+        int lastCellNum = cells.isEmpty() ? 0 : cells.lastKey() + 1;
+        for (int i = 0; i < lastCellNum; i++) {
+            ExcelCell cell = cells.get(i);
+            cellRow.add(cell != null ? cell : ExcelReader.toTextCell("", styleCache.get(0, styles::getStyleAt)));
+        }
+        return cellRow;
+    }
+
+    private Float getColumnWidthInPixels(int column) {
+        double width = defaultColumnWidth;
+        Map.Entry<Integer, double[]> col = columnWidths.floorEntry(column);
+        if (col != null && column <= col.getValue()[0]) {
+            width = col.getValue()[1];
+        }
+        return (float) (Math.round(width * 256) / 256.0 * Units.DEFAULT_CHARACTER_WIDTH);
+    }
+}
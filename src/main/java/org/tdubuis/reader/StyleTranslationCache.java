@@ -0,0 +1,89 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.format.CellFormatter;
+import org.tdubuis.format.FormatterRegistry;
+import org.tdubuis.filedata.StyleTable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Translation of the Excel cell styles of one workbook, keyed on the style index (cellXfs) of the workbook.
+ * Each style index is converted once to a {@link CellStyle} interned in the {@link StyleTable}, a workbook has a few
+ * dozen style indexes for tens of thousands of cells.
+ */
+public class StyleTranslationCache {
+    private static final Logger logger = LogManager.getLogger(StyleTranslationCache.class);
+
+    /**
+     * @param styleId id of the {@link CellStyle} in the style table
+     * @param formatter compiled data format of the Excel style, used to format numeric cells
+     */
+    public record TranslatedStyle(int styleId, CellFormatter formatter) {
+    }
+
+    private final StyleTable styleTable;
+    private final Map<Integer, TranslatedStyle> translatedStyles = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StyleTranslationCache(StyleTable styleTable) {
+        this.styleTable = styleTable;
+    }
+
+    public StyleTable getStyleTable() {
+        return styleTable;
+    }
+
+    /**
+     * @param styleIndex index of the style in the workbook
+     * @param styleAt give the Excel style of an index, only called on the first lookup of the index
+     */
+    public TranslatedStyle get(int styleIndex, IntFunction<XSSFCellStyle> styleAt) {
+        TranslatedStyle translatedStyle = translatedStyles.get(styleIndex);
+        if (translatedStyle != null) {
+            hits.increment();
+            return translatedStyle;
+        }
+        misses.increment();
+        return translatedStyles.computeIfAbsent(styleIndex, index -> {
+            XSSFCellStyle excelStyle = styleAt.apply(index);
+            int styleId = styleTable.intern(CellStyleTranslator.translate(excelStyle));
+            return new TranslatedStyle(styleId, FormatterRegistry.get(excelStyle.getDataFormat(), excelStyle.getDataFormatString()));
+        });
+    }
+
+    public TranslatedStyle get(XSSFCellStyle excelStyle) {
+        return get(excelStyle.getIndex(), index -> excelStyle);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return hits, misses and distinct styles of the cache, for the run report
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", getHits());
+        metrics.put("misses", getMisses());
+        metrics.put("distinctStyles", styleTable.size());
+        return metrics;
+    }
+
+    public void logStatistics() {
+        logger.debug("Style cache : {} hits, {} misses, {} distinct styles", getHits(), getMisses(), styleTable.size());
+    }
+}
@@ -0,0 +1,112 @@
+package org.tdubuis.reader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.Phase;
+import org.tdubuis.report.PhaseTimer;
+import org.tdubuis.report.RunReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Read the workbook with the full {@link XSSFWorkbook} model. The model is not thread-safe, sheets are extracted one
+ * after the other.
+ */
+public class WorkbookExcelReader extends ExcelReader {
+    private static final Logger logger = LogManager.getLogger(WorkbookExcelReader.class);
+
+    public WorkbookExcelReader(ConfigFile config, RunReport report) {
+        super(config, report);
+    }
+
+    @Override
+    protected void readSheets(File excelFile, RegionCollector collector) throws IOException, InvalidFormatException {
+        XSSFWorkbook loadedWorkbook;
+        try (PhaseTimer ignored = report.start(Phase.LOAD_WORKBOOK)) {
+            loadedWorkbook = new XSSFWorkbook(excelFile);
+        }
+        try (XSSFWorkbook workbook = loadedWorkbook) {
+            logger.info("{} sheets found", workbook.getNumberOfSheets());
+
+            StyleTranslationCache styleCache = new StyleTranslationCache(new StyleTable());
+            for (int i = 0 ; i < workbook.getNumberOfSheets(); ++i) {
+                collector.checkCancelled();
+                XSSFSheet sheet = workbook.getSheetAt(i);
+                if (!collector.claim(sheet.getSheetName())) {
+                    continue;
+                }
+                HashMap<String, TableData> dataMap;
+                try (PhaseTimer timer = report.start(Phase.EXTRACT_SHEET, sheet.getSheetName(), null)) {
+                    dataMap = readSheet(sheet, workbook, styleCache);
+                    dataMap.values().forEach(timer::addTable);
+                } catch (TimeoutException | RuntimeException e) {
+                    //A malformed or too slow sheet is skipped, the other sheets go on
+                    collector.failed(sheet.getSheetName(), e);
+                    continue;
+                }
+                collector.add(sheet.getSheetName(), dataMap);
+            }
+            styleCacheDone(styleCache);
+        }
+    }
+
+    private HashMap<String, TableData> readSheet(XSSFSheet sheet, XSSFWorkbook workbook, StyleTranslationCache styleCache) throws TimeoutException {
+        long startNanos = System.nanoTime();
+        SheetBlockCollector collector = new SheetBlockCollector(config, sheet.getSheetName(), sheet::getColumnWidthInPixels, styleCache.getStyleTable());
+        int numberOfRow = sheet.getLastRowNum();
+
+        for (int i = 0; i < numberOfRow; i++) {
+            XSSFRow row = sheet.getRow(i);
+            if (!collector.addRow(i, row.getCell(0).getStringCellValue(), readRow(row, workbook, styleCache))) {
+                break;
+            }
+            checkSheetBudget(config, sheet.getSheetName(), startNanos);
+        }
+        XSSFRow lastRow = numberOfRow > 0 ? sheet.getRow(numberOfRow) : null;
+        if (lastRow != null) {
+            collector.lastRowSkipped(numberOfRow, readRow(lastRow, workbook, styleCache));
+        }
+        return collector.finish(sheet.getMergedRegions());
+    }
+
+    private static List<ExcelCell> readRow(XSSFRow row, XSSFWorkbook workbook, StyleTranslationCache styleCache) {
+        List<ExcelCell> cellRow = new ArrayList<>();
+        for (int j = 0; j < row.getLastCellNum(); j++) {
+            XSSFCell cell = row.getCell(j);
+            if (cell == null) {
+                cellRow.add(toTextCell("", styleCache.get(0, workbook::getCellStyleAt)));
+            } else {
+                cellRow.add(toExcelCell(cell, styleCache.get(cell.getCellStyle())));
+            }
+        }
+        return cellRow;
+    }
+
+    /**
+     * Formulas use their cached result.
+     */
+    private static ExcelCell toExcelCell(XSSFCell cell, StyleTranslationCache.TranslatedStyle style) {
+        CellType cellType = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+        return switch (cellType) {
+            case NUMERIC -> toNumericCell(cell.getNumericCellValue(), style);
+            case STRING -> toTextCell(cell.getStringCellValue(), style);
+            case BOOLEAN -> toTextCell(cell.getBooleanCellValue() ? "TRUE" : "FALSE", style);
+            case ERROR -> toTextCell(cell.getErrorCellString(), style);
+            default -> toTextCell("", style);
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package org.tdubuis.reader;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.tdubuis.config.CompiledConfig;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Quick look at the workbook before its extraction : the sheet names from the workbook part, and the config titles
+ * searched in the shared strings. No sheet is read, so a workbook without region sheet fails before minutes of extraction.
+ * The title search is advisory : titles written as inline strings or computed by formulas are not in the shared
+ * strings, so a missing title is only a warning. Titles are only searched when the workbook has shared strings.
+ */
+public final class WorkbookPreScan {
+    /**
+     * @param regions regions having a "REGION - MOIS" or "REGION - YTD" sheet
+     * @param missingTitles config titles found in no shared string, empty when the workbook has no shared strings
+     */
+    public record Result(int sheetCount, Set<String> regions, List<String> missingTitles) {
+        /**
+         * @return why the workbook can not be converted, null when it can
+         */
+        public String getError() {
+            if (regions.isEmpty()) {
+                return "No \"REGION - MOIS\" or \"REGION - YTD\" sheet in the " + sheetCount + " sheets of the workbook";
+            }
+            return null;
+        }
+
+        /**
+         * @return config titles not found in the shared strings, null when all are found. They may still be in the
+         * sheets as inline strings or formula results
+         */
+        public String getWarning() {
+            if (!missingTitles.isEmpty()) {
+                return "Config titles not found in the shared strings of the workbook : " + String.join(", ", missingTitles);
+            }
+            return null;
+        }
+    }
+
+    private WorkbookPreScan() {
+    }
+
+    public static Result scan(File excelFile, CompiledConfig config) throws IOException {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(excelFile, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            Set<String> regions = new TreeSet<>();
+            int sheetCount = 0;
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream ignored = sheets.next()) {
+                    RegionCollector.SheetKey key = RegionCollector.SheetKey.parse(sheets.getSheetName());
+                    if (key != null) {
+                        regions.add(key.region());
+                    }
+                }
+                sheetCount++;
+            }
+
+            List<String> missingTitles = new ArrayList<>();
+            List<PackagePart> sharedStringsParts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!sharedStringsParts.isEmpty()) {
+                BitSet found = findTitles(sharedStringsParts.get(0), config);
+                for (CompiledConfig.Entry entry : config.getEntries()) {
+                    if (!found.get(entry.index())) {
+                        missingTitles.add("\"" + entry.title() + "\"");
+                    }
+                }
+            }
+            return new Result(sheetCount, regions, missingTitles);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not scan workbook " + excelFile.getName(), e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    private static BitSet findTitles(PackagePart sharedStringsPart, CompiledConfig config) throws IOException, SAXException, ParserConfigurationException {
+        SharedStringsHandler handler = new SharedStringsHandler(config);
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(handler);
+        try (InputStream in = sharedStringsPart.getInputStream()) {
+            xmlReader.parse(new InputSource(in));
+        } catch (AllTitlesFound e) {
+            //The rest of the strings is not needed
+        }
+        return handler.found;
+    }
+
+    /**
+     * Run the title matcher on every shared string, like the reader does on the first cell of each row.
+     */
+    private static class SharedStringsHandler extends DefaultHandler {
+        private final CompiledConfig config;
+        private final BitSet found = new BitSet();
+        private final StringBuilder text = new StringBuilder();
+        private boolean readingText;
+        private boolean inPhoneticRun;
+
+        private SharedStringsHandler(CompiledConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "si" -> text.setLength(0);
+                case "rPh" -> inPhoneticRun = true;
+                case "t" -> readingText = !inPhoneticRun;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "t" -> readingText = false;
+                case "rPh" -> inPhoneticRun = false;
+                case "si" -> {
+                    String title = config.findFirstTitle(text.toString());
+                    if (title != null) {
+                        found.set(config.getByTitle(title).index());
+                        if (found.cardinality() == config.getEntries().size()) {
+                            throw new AllTitlesFound();
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (readingText) {
+                text.append(ch, start, length);
+            }
+        }
+    }
+
+    private static class AllTitlesFound extends SAXException {
+    }
+}
@@ -0,0 +1,25 @@
+package org.tdubuis.report;
+
+/**
+ * Timed steps of a run.
+ */
+public enum Phase {
+    /** Open the workbook (package, shared strings, styles) */
+    LOAD_WORKBOOK,
+    /** Read one sheet into the tables of its config titles */
+    EXTRACT_SHEET,
+    /** Hash the workbook, then load or save the cache of its extracted tables */
+    EXTRACT_CACHE,
+    /** Load the PPT template snapshot */
+    LOAD_TEMPLATE,
+    /** Check the config against the template slides and a pre-scan of the workbook, before the extraction */
+    PRE_SCAN,
+    /** Generation of one region deck, its write is the following WRITE_DECK on a writer thread */
+    REGION,
+    /** Build and add one table on a slide */
+    GENERATE_TABLE,
+    /** Compute the final borders of one table (left border and merged cells fixes) */
+    FIX_BORDERS,
+    /** Write the pptx of one region */
+    WRITE_DECK
+}
@@ -0,0 +1,38 @@
+package org.tdubuis.report;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event committed at the end of every {@link PhaseTimer}, visible in JDK Mission Control under "RexConvertExcelToPPT".
+ */
+@Name("org.tdubuis.Phase")
+@Label("Conversion Phase")
+@Category("RexConvertExcelToPPT")
+@Description("A timed step of the conversion")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+    @Label("Region")
+    String region;
+    @Label("Title")
+    String title;
+    @Label("Rows")
+    int rows;
+    @Label("Cells")
+    long cells;
+    @Label("Merges")
+    int merges;
+    @Label("Bytes Written")
+    @DataAmount
+    long bytes;
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
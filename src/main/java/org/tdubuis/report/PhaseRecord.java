@@ -0,0 +1,9 @@
+package org.tdubuis.report;
+
+/**
+ * Measure of one phase, as written in the run report.
+ * @param allocatedBytes bytes allocated by the thread during the phase, -1 when the JVM does not measure it
+ */
+public record PhaseRecord(Phase phase, String region, String title, String thread, double durationMs, long allocatedBytes,
+                          int rows, long cells, int merges, long bytes) {
+}
@@ -0,0 +1,97 @@
+package org.tdubuis.report;
+
+import org.tdubuis.filedata.TableData;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measure of a phase, from its creation by {@link RunReport#start} to close. Counters are filled by the caller.
+ * A timer belongs to the thread which started it : phases started inside it without region or title inherit them.
+ */
+public class PhaseTimer implements AutoCloseable {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = getAllocationBean();
+
+    private final RunReport report;
+    private final PhaseTimer parent;
+    private final Phase phase;
+    private final String region;
+    private final String title;
+    private final PhaseEvent event = new PhaseEvent();
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private int rows;
+    private long cells;
+    private int merges;
+    private long bytes;
+
+    PhaseTimer(RunReport report, PhaseTimer parent, Phase phase, String region, String title) {
+        this.report = report;
+        this.parent = parent;
+        this.phase = phase;
+        this.region = region;
+        this.title = title;
+        event.begin();
+        startAllocatedBytes = getAllocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    String getRegion() {
+        return region;
+    }
+
+    String getTitle() {
+        return title;
+    }
+
+    PhaseTimer getParent() {
+        return parent;
+    }
+
+    /**
+     * Add the rows, cells and merged regions of the table to the counters.
+     */
+    public PhaseTimer addTable(TableData data) {
+        rows += data.getRowCount();
+        cells += (long) data.getRowCount() * data.getColumnCount();
+        merges += data.getMergedRegionCount();
+        return this;
+    }
+
+    public PhaseTimer addBytes(long bytes) {
+        this.bytes += bytes;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        double durationMs = (System.nanoTime() - startNanos) / 1_000_000d;
+        long allocatedBytes = startAllocatedBytes < 0 ? -1 : getAllocatedBytes() - startAllocatedBytes;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase.name();
+            event.region = region;
+            event.title = title;
+            event.rows = rows;
+            event.cells = cells;
+            event.merges = merges;
+            event.bytes = bytes;
+            event.allocatedBytes = allocatedBytes;
+            event.commit();
+        }
+        report.end(this, new PhaseRecord(phase, region, title, Thread.currentThread().getName(), durationMs, allocatedBytes, rows, cells, merges, bytes));
+    }
+
+    private static long getAllocatedBytes() {
+        return ALLOCATION_BEAN == null ? -1 : ALLOCATION_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean allocationBean && allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return allocationBean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,150 @@
+package org.tdubuis.report;
+
+import com.google.gson.GsonBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Timers and counters of a run, by phase, region and config title. Every phase is also committed as a JFR event
+ * ({@link PhaseEvent}), the report itself is written as JSON next to the output decks.
+ * Thread-safe, timers are started and closed by the thread doing the work.
+ */
+public class RunReport {
+    private static final Logger logger = LogManager.getLogger(RunReport.class);
+
+    /** Only commit the JFR events, nothing is kept */
+    public static final RunReport NONE = new RunReport(false);
+
+    private final boolean recording;
+    private final Instant startTime = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Object> info = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, String> failedRegions = Collections.synchronizedMap(new TreeMap<>());
+    private final Queue<PhaseRecord> records = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<PhaseTimer> currentTimer = new ThreadLocal<>();
+
+    private RunReport(boolean recording) {
+        this.recording = recording;
+    }
+
+    public static RunReport create() {
+        return new RunReport(true);
+    }
+
+    /**
+     * @return name of the report of a conversion, with the suffix of its decks so that conversions sharing an output
+     * folder do not overwrite each other
+     */
+    public static String getFileName(String excelSuffix) {
+        return "run-report" + (excelSuffix == null ? "" : excelSuffix) + ".json";
+    }
+
+    /**
+     * Start a phase with the region and title of the phase running on this thread, if any.
+     */
+    public PhaseTimer start(Phase phase) {
+        return start(phase, null, null);
+    }
+
+    /**
+     * @param region region, or null for the one of the phase running on this thread
+     * @param title config title, or null for the one of the phase running on this thread
+     */
+    public PhaseTimer start(Phase phase, String region, String title) {
+        PhaseTimer parent = currentTimer.get();
+        if (parent != null) {
+            region = region == null ? parent.getRegion() : region;
+            title = title == null ? parent.getTitle() : title;
+        }
+        PhaseTimer timer = new PhaseTimer(this, parent, phase, region, title);
+        currentTimer.set(timer);
+        return timer;
+    }
+
+    void end(PhaseTimer timer, PhaseRecord record) {
+        if (timer.getParent() == null) {
+            currentTimer.remove();
+        } else {
+            currentTimer.set(timer.getParent());
+        }
+        if (recording) {
+            records.add(record);
+        }
+    }
+
+    /**
+     * Value written as is in the "info" section of the report (files, settings...).
+     */
+    public void putInfo(String key, Object value) {
+        info.put(key, value);
+    }
+
+    public void regionFailed(String region, Throwable error) {
+        failedRegions.put(region, String.valueOf(error));
+    }
+
+    public void write(File file) throws IOException {
+        List<PhaseRecord> allRecords = new ArrayList<>(records);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startTime", startTime.toString());
+        report.put("durationMs", (System.nanoTime() - startNanos) / 1_000_000d);
+        synchronized (info) {
+            report.put("info", new LinkedHashMap<>(info));
+        }
+        report.put("phases", aggregate(allRecords, record -> true, record -> record.phase().name()));
+        report.put("regions", aggregate(allRecords, record -> record.phase() == Phase.REGION || record.phase() == Phase.WRITE_DECK, PhaseRecord::region));
+        report.put("titles", aggregate(allRecords, record -> record.phase() == Phase.GENERATE_TABLE, PhaseRecord::title));
+        synchronized (failedRegions) {
+            report.put("failedRegions", new TreeMap<>(failedRegions));
+        }
+        report.put("records", allRecords);
+
+        Files.writeString(file.toPath(), new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues().create().toJson(report));
+        logger.info("Run report written : {}", file.getAbsolutePath());
+    }
+
+    private static Map<String, Totals> aggregate(List<PhaseRecord> records, Predicate<PhaseRecord> filter, Function<PhaseRecord, String> key) {
+        Map<String, Totals> totals = new TreeMap<>();
+        for (PhaseRecord record : records) {
+            if (filter.test(record) && key.apply(record) != null) {
+                totals.computeIfAbsent(key.apply(record), k -> new Totals()).add(record);
+            }
+        }
+        return totals;
+    }
+
+    private static class Totals {
+        private int count;
+        private double durationMs;
+        private long allocatedBytes;
+        private long rows;
+        private long cells;
+        private long merges;
+        private long bytes;
+
+        private void add(PhaseRecord record) {
+            count++;
+            durationMs += record.durationMs();
+            allocatedBytes += Math.max(0, record.allocatedBytes());
+            rows += record.rows();
+            cells += record.cells();
+            merges += record.merges();
+            bytes += record.bytes();
+        }
+    }
+}
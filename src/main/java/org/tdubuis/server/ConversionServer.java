@@ -0,0 +1,205 @@
+package org.tdubuis.server;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.batch.BatchDescriptor;
+import org.tdubuis.batch.JobRunner;
+import org.tdubuis.convert.PipelineExecutors;
+import org.tdubuis.convert.TemplateCache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Long-running conversion process : jobs are received by a local HTTP API ({@link JobHttpHandler}) and by an optional
+ * drop folder ({@link DropFolderWatcher}), and run with the caches of a {@link JobRunner} kept warm between jobs.
+ * Jobs run on parallelJobs threads with a bounded queue, a job submitted when the queue is full is refused so the
+ * caller can retry later.
+ */
+public class ConversionServer implements Closeable {
+    private static final Logger logger = LogManager.getLogger(ConversionServer.class);
+
+    //Finished jobs kept for the status API
+    private static final int MAX_FINISHED_JOBS = 1000;
+
+    private final ServerSettings settings;
+    @Getter private final TemplateCache templateCache = new TemplateCache();
+    private final PipelineExecutors executors;
+    private final ThreadPoolExecutor jobExecutor;
+    private final JobRunner jobRunner;
+    private final Map<String, JobStatus> jobs = new LinkedHashMap<>();
+    private final AtomicLong jobCount = new AtomicLong();
+    private HttpServer httpServer;
+    private DropFolderWatcher dropFolderWatcher;
+
+    public ConversionServer(ServerSettings settings) {
+        this.settings = settings;
+        this.executors = PipelineExecutors.create(settings.getWorkerCountOrDefault(), settings.getWriterCountOrDefault(), settings.getMemoryBudgetBytes());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(settings.getParallelJobs(), settings.getParallelJobs(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getQueueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "server-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.jobRunner = new JobRunner(templateCache, executors, settings.getWorkerCountOrDefault(), settings.getWriterCountOrDefault());
+    }
+
+    public void start() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getPort()), 0);
+        httpServer.createContext("/", new JobHttpHandler(this));
+        httpServer.setExecutor(Executors.newFixedThreadPool(2));
+        httpServer.start();
+        logger.info("Server listening on http://{}:{}/jobs", InetAddress.getLoopbackAddress().getHostAddress(), httpServer.getAddress().getPort());
+
+        if (settings.getDropFolder() != null) {
+            dropFolderWatcher = new DropFolderWatcher(this, new File(settings.getDropFolder()));
+            dropFolderWatcher.start();
+        }
+    }
+
+    /**
+     * @param onFinish called on the job thread once the job is done or failed, can be null
+     * @return status of the queued job, null when the queue is full
+     */
+    public JobStatus submit(BatchDescriptor.Job job, Consumer<JobStatus> onFinish) {
+        String id = Long.toString(jobCount.incrementAndGet());
+        if (job.getName() == null) {
+            job.setName("job-" + id);
+        }
+        JobStatus status = new JobStatus(id, job);
+        synchronized (jobs) {
+            jobs.put(id, status);
+        }
+        try {
+            jobExecutor.execute(() -> runJob(status, onFinish));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(id);
+            }
+            logger.warn("Job {} refused, queue full", job.getName());
+            return null;
+        }
+        removeOldJobs();
+        return status;
+    }
+
+    public JobStatus getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<JobStatus> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /**
+     * @return load of the server, for the health endpoint
+     */
+    public Map<String, Object> getHealth() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("runningJobs", jobExecutor.getActiveCount());
+        health.put("queuedJobs", jobExecutor.getQueue().size());
+        health.put("queueCapacity", settings.getQueueCapacity());
+        health.put("parallelJobs", settings.getParallelJobs());
+        health.put("workers", settings.getWorkerCountOrDefault());
+        health.put("writers", settings.getWriterCountOrDefault());
+        health.put("cachedTemplates", templateCache.size());
+        health.put("memory", executors.memoryBudget().getMetrics());
+        health.put("completedJobs", jobExecutor.getCompletedTaskCount());
+        return health;
+    }
+
+    /**
+     * @return false when the job is unknown or already finished
+     */
+    public boolean cancel(String id) {
+        JobStatus status = getJob(id);
+        if (status == null || !status.cancel()) {
+            return false;
+        }
+        logger.info("Job {} cancelled", status.getJob().getName());
+        return true;
+    }
+
+    private void runJob(JobStatus status, Consumer<JobStatus> onFinish) {
+        if (!status.started()) {
+            if (onFinish != null) {
+                onFinish.accept(status);
+            }
+            return;
+        }
+        try {
+            status.done(jobRunner.run(status.getJob(), status.getControl()));
+        } catch (Exception | LinkageError e) {
+            logger.error("Job {} failed", status.getJob().getName(), e);
+            status.failed(e);
+        } finally {
+            if (onFinish != null) {
+                onFinish.accept(status);
+            }
+        }
+    }
+
+    private void removeOldJobs() {
+        synchronized (jobs) {
+            int finished = (int) jobs.values().stream().filter(JobStatus::isFinished).count();
+            Iterator<JobStatus> iterator = jobs.values().iterator();
+            while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop accepting jobs, let the running ones finish (up to 1 minute) and stop the threads.
+     */
+    @Override
+    public void close() {
+        logger.info("Server stopping");
+        if (dropFolderWatcher != null) {
+            dropFolderWatcher.close();
+        }
+        if (httpServer != null) {
+            httpServer.stop(1);
+            ((ExecutorService) httpServer.getExecutor()).shutdown();
+        }
+        jobExecutor.shutdown();
+        try {
+            if (!jobExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Jobs still running, interrupting them");
+                jobExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            jobExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executors.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.tdubuis.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.batch.BatchDescriptor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submit the job files (*.json, same fields as a batch job) dropped in a folder.
+ * An accepted file is moved to "accepted", an invalid one to "rejected", and the status of the job is written in
+ * "done/&lt;file&gt;.status.json" when it finishes. The file is moved before the job is queued, and moved back when the
+ * queue is full so it is submitted again at the next scan.
+ */
+class DropFolderWatcher implements Closeable {
+    private static final Logger logger = LogManager.getLogger(DropFolderWatcher.class);
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
+    private static final long SCAN_PERIOD_MS = 1000;
+    //A file modified more recently may still be written
+    private static final long MIN_FILE_AGE_MS = 1000;
+
+    private final ConversionServer server;
+    private final File folder;
+    private final File acceptedFolder;
+    private final File rejectedFolder;
+    private final File doneFolder;
+    private final ScheduledExecutorService scanner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "drop-folder-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    DropFolderWatcher(ConversionServer server, File folder) {
+        this.server = server;
+        this.folder = folder;
+        this.acceptedFolder = new File(folder, "accepted");
+        this.rejectedFolder = new File(folder, "rejected");
+        this.doneFolder = new File(folder, "done");
+    }
+
+    void start() throws IOException {
+        for (File subFolder : new File[]{folder, acceptedFolder, rejectedFolder, doneFolder}) {
+            Files.createDirectories(subFolder.toPath());
+        }
+        scanner.scheduleWithFixedDelay(this::scan, 0, SCAN_PERIOD_MS, TimeUnit.MILLISECONDS);
+        logger.info("Watching drop folder {}", folder.getAbsolutePath());
+    }
+
+    private void scan() {
+        try {
+            File[] files = folder.listFiles(file -> file.isFile() && file.getName().endsWith(".json")
+                    && file.lastModified() < System.currentTimeMillis() - MIN_FILE_AGE_MS);
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (!submit(file)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException | IOException e) {
+            logger.error("Error when scanning drop folder {}", folder.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return false when the queue is full
+     */
+    private boolean submit(File file) throws IOException {
+        BatchDescriptor.Job job;
+        try {
+            job = GSON.fromJson(Files.readString(file.toPath()), BatchDescriptor.Job.class);
+        } catch (JsonParseException e) {
+            job = null;
+        }
+        if (job == null || job.getConfig() == null) {
+            logger.error("Invalid job file {}", file.getName());
+            move(file, rejectedFolder);
+            return true;
+        }
+        if (job.getName() == null) {
+            job.setName(file.getName().substring(0, file.getName().length() - ".json".length()));
+        }
+
+        //Moved before the submit : if the move fails the job is not queued, and the file is not submitted twice
+        String fileName = file.getName();
+        File acceptedFile = move(file, acceptedFolder);
+        JobStatus status = server.submit(job, finished -> writeStatus(fileName, finished));
+        if (status == null) {
+            try {
+                move(acceptedFile, folder);
+            } catch (IOException e) {
+                logger.error("Job file {} refused (queue full) and left in {}, drop it again", fileName, acceptedFolder.getAbsolutePath(), e);
+            }
+            return false;
+        }
+        logger.info("Job file {} submitted as job {}", fileName, status.getId());
+        return true;
+    }
+
+    private void writeStatus(String fileName, JobStatus status) {
+        try {
+            Files.writeString(new File(doneFolder, fileName.replace(".json", ".status.json")).toPath(), GSON.toJson(status.toJson()));
+        } catch (IOException e) {
+            logger.error("Could not write status of job file {}", fileName, e);
+        }
+    }
+
+    /**
+     * @return the moved file
+     */
+    private static File move(File file, File targetFolder) throws IOException {
+        File target = new File(targetFolder, file.getName());
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    @Override
+    public void close() {
+        scanner.shutdownNow();
+    }
+}
@@ -0,0 +1,134 @@
+package org.tdubuis.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.batch.BatchDescriptor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JSON API of the server :
+ * POST /jobs with a job (same fields as a batch job) : 202 and the job status, 429 when the queue is full.
+ * GET /jobs : status of every known job. GET /jobs/{id} : status of one job, with its progress.
+ * DELETE /jobs/{id} : cancel the job, 202 and the job status, 409 when it is already finished.
+ * GET /health : load of the server.
+ * The server only listens on the loopback address, and browsers are kept out : a request with an Origin header, or a
+ * Host header other than the loopback address (DNS rebinding), gets 403, and POST /jobs needs a JSON content type (415),
+ * which a cross-site form can not send without a preflight.
+ */
+class JobHttpHandler implements HttpHandler {
+    private static final Logger logger = LogManager.getLogger(JobHttpHandler.class);
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
+    private static final int MAX_BODY_SIZE = 64 * 1024;
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final Pattern LOOPBACK_HOST = Pattern.compile("(127\\.0\\.0\\.1|localhost|\\[::1])(:\\d+)?", Pattern.CASE_INSENSITIVE);
+
+    private final ConversionServer server;
+
+    JobHttpHandler(ConversionServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            if (exchange.getRequestHeaders().containsKey("Origin")) {
+                send(exchange, 403, Map.of("error", "Cross-origin requests are not allowed"));
+            } else if (host == null || !LOOPBACK_HOST.matcher(host).matches()) {
+                send(exchange, 403, Map.of("error", "Host must be the loopback address : " + host));
+            } else if (path.equals("/health") && method.equals("GET")) {
+                send(exchange, 200, server.getHealth());
+            } else if (path.equals("/jobs") && method.equals("POST")) {
+                postJob(exchange);
+            } else if (path.equals("/jobs") && method.equals("GET")) {
+                send(exchange, 200, server.getJobs().stream().map(JobStatus::toJson).toList());
+            } else if (path.startsWith("/jobs/") && method.equals("GET")) {
+                JobStatus status = server.getJob(path.substring("/jobs/".length()));
+                if (status == null) {
+                    send(exchange, 404, Map.of("error", "Unknown job"));
+                } else {
+                    send(exchange, 200, status.toJson());
+                }
+            } else if (path.startsWith("/jobs/") && method.equals("DELETE")) {
+                String id = path.substring("/jobs/".length());
+                JobStatus status = server.getJob(id);
+                if (status == null) {
+                    send(exchange, 404, Map.of("error", "Unknown job"));
+                } else if (!server.cancel(id)) {
+                    send(exchange, 409, Map.of("error", "Job already finished"));
+                } else {
+                    send(exchange, 202, status.toJson());
+                }
+            } else {
+                send(exchange, 404, Map.of("error", "Unknown resource " + method + " " + path));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error when handling {}", exchange.getRequestURI(), e);
+            //The response may already be started, then the client only sees the connection closed
+            if (exchange.getResponseCode() == -1) {
+                try {
+                    send(exchange, 500, Map.of("error", "Internal error : " + e));
+                } catch (IOException sendError) {
+                    logger.warn("Could not send the error response of {}", exchange.getRequestURI(), sendError);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void postJob(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("application/json")) {
+            send(exchange, 415, Map.of("error", "Content-Type must be application/json : " + contentType));
+            return;
+        }
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            send(exchange, 413, Map.of("error", "Job too large"));
+            return;
+        }
+        BatchDescriptor.Job job;
+        try {
+            job = GSON.fromJson(new String(body, StandardCharsets.UTF_8), BatchDescriptor.Job.class);
+        } catch (JsonParseException e) {
+            send(exchange, 400, Map.of("error", "Invalid job : " + e.getMessage()));
+            return;
+        }
+        if (job == null || job.getConfig() == null) {
+            send(exchange, 400, Map.of("error", "A job needs a config file"));
+            return;
+        }
+
+        JobStatus status = server.submit(job, null);
+        if (status == null) {
+            exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+            send(exchange, 429, Map.of("error", "Queue full, retry later"));
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", "/jobs/" + status.getId());
+        send(exchange, 202, status.toJson());
+    }
+
+    private static void send(HttpExchange exchange, int code, Object json) throws IOException {
+        byte[] response = GSON.toJson(json).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
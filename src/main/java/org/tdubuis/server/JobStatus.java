@@ -0,0 +1,110 @@
+package org.tdubuis.server;
+
+import lombok.Getter;
+import org.tdubuis.batch.BatchDescriptor;
+import org.tdubuis.convert.ConversionControl;
+import org.tdubuis.convert.ConversionProgress;
+import org.tdubuis.convert.ConversionResult;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * State of a job submitted to the server. Updated by the job thread, read by the API threads.
+ */
+public class JobStatus {
+    public enum State { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    @Getter private final String id;
+    @Getter private final BatchDescriptor.Job job;
+    /** Progress and cancellation of the conversion of the job */
+    @Getter private final ConversionControl control = new ConversionControl();
+    private final Instant submittedAt = Instant.now();
+    private State state = State.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private ConversionResult result;
+    private String error;
+
+    JobStatus(String id, BatchDescriptor.Job job) {
+        this.id = id;
+        this.job = job;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isFinished() {
+        return state == State.DONE || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    /**
+     * Cancel the job : a queued job will not run, a running job stops before its next sheet and region.
+     * @return false when the job is already finished
+     */
+    synchronized boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        control.cancel();
+        if (state == State.QUEUED) {
+            state = State.CANCELLED;
+            finishedAt = Instant.now();
+        }
+        return true;
+    }
+
+    /**
+     * @return false when the job was cancelled while queued, it must not run
+     */
+    synchronized boolean started() {
+        if (state == State.CANCELLED) {
+            return false;
+        }
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void done(ConversionResult result) {
+        state = result.cancelled() ? State.CANCELLED : State.DONE;
+        finishedAt = Instant.now();
+        this.result = result;
+    }
+
+    synchronized void failed(Throwable error) {
+        state = State.FAILED;
+        finishedAt = Instant.now();
+        this.error = String.valueOf(error);
+    }
+
+    /**
+     * @return status as written by the API and in the drop folder
+     */
+    public synchronized Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("name", job.getName());
+        json.put("state", state);
+        json.put("submittedAt", submittedAt.toString());
+        json.put("startedAt", startedAt == null ? null : startedAt.toString());
+        json.put("finishedAt", finishedAt == null ? null : finishedAt.toString());
+        ConversionProgress progress = control.getProgress();
+        json.put("progress", progress == null ? null : progress.toJson());
+        if (result != null) {
+            json.put("outputFiles", result.outputFiles().stream().map(File::getAbsolutePath).toList());
+            json.put("skippedRegions", result.skippedRegions());
+            Map<String, String> failedRegions = new TreeMap<>();
+            result.failedRegions().forEach((region, failure) -> failedRegions.put(region, String.valueOf(failure)));
+            json.put("failedRegions", failedRegions);
+            json.put("reportFile", result.reportFile().getAbsolutePath());
+            json.put("durationMs", result.durationMs());
+        }
+        json.put("error", error);
+        return json;
+    }
+}
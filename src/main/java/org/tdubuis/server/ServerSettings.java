@@ -0,0 +1,36 @@
+package org.tdubuis.server;
+
+import lombok.Data;
+
+/**
+ * Settings of the conversion server, from the command line.
+ */
+@Data
+public class ServerSettings {
+    /** Port of the HTTP API, bound on the loopback address only */
+    private int port = 8765;
+    /** Folder watched for job files, no drop folder when null */
+    private String dropFolder;
+    /** Jobs running at the same time */
+    private int parallelJobs = 2;
+    /** Jobs waiting for a free slot, more are refused until the queue drains */
+    private int queueCapacity = 32;
+    /** Threads generating region decks, shared by all the jobs, all cores when 0 or less */
+    private int workerCount = 0;
+    /** Threads writing region decks, shared by all the jobs */
+    private int writerCount = 1;
+    /** Heap budget of the regions in flight in MB, shared by all the jobs, 60% of the heap when 0 or less */
+    private int memoryBudgetMb = 0;
+
+    public int getWorkerCountOrDefault() {
+        return workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+    }
+
+    public long getMemoryBudgetBytes() {
+        return Math.max(0, memoryBudgetMb * 1024L * 1024L);
+    }
+
+    public int getWriterCountOrDefault() {
+        return Math.max(1, writerCount);
+    }
+}
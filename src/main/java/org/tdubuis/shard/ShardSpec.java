@@ -0,0 +1,50 @@
+package org.tdubuis.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Shard index of count (1-based, "2/4") of a run. A region belongs to the shard given by the CRC32 of its name, so the
+ * processes started with the same count compute the same partition without talking to each other.
+ */
+public record ShardSpec(int index, int count) {
+
+    public ShardSpec {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be i/N with 1 <= i <= N : " + index + "/" + count);
+        }
+    }
+
+    /**
+     * @param shard "i/N"
+     */
+    public static ShardSpec parse(String shard) {
+        String[] parts = shard.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Shard must be i/N : " + shard);
+        }
+        try {
+            return new ShardSpec(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Shard must be i/N : " + shard, e);
+        }
+    }
+
+    public boolean contains(String region) {
+        CRC32 crc = new CRC32();
+        crc.update(region.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() % count == index - 1;
+    }
+
+    /**
+     * @return name of the shard usable in a file name
+     */
+    public String getName() {
+        return "shard-" + index + "-of-" + count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,177 @@
+package org.tdubuis.shard;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.tdubuis.incremental.RegenerationManifest;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Work queue of the processes converting into one output folder, on one host or on several hosts sharing the folder.
+ * A worker claims a deck before generating it and reports its completion in the {@link RegenerationManifest} :
+ * a deck whose fingerprint is in the manifest is done, a deck claimed by another worker for the same fingerprint is
+ * left to it, unless the claim is older than the claim timeout (crashed worker).
+ * The claims and the manifest are only changed under an exclusive lock on work-queue.lock, the folder must support
+ * file locks (local disk, SMB, NFS with a lock manager).
+ */
+public class WorkQueue {
+    private static final Logger logger = LogManager.getLogger(WorkQueue.class);
+
+    public static final String FILE_NAME = "work-queue.json";
+    private static final String LOCK_FILE_NAME = "work-queue.lock";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    //A file lock is held by the JVM, the threads of the process take it one at a time
+    private static final Object PROCESS_LOCK = new Object();
+
+    public enum Claim {
+        /** Claimed by this worker, to generate */
+        CLAIMED,
+        /** Generated by a worker for the same fingerprint */
+        DONE,
+        /** Being generated by another worker */
+        CLAIMED_ELSEWHERE
+    }
+
+    private static class ClaimEntry {
+        private String fingerprint;
+        private String worker;
+        private long claimedAt;
+    }
+
+    private static class State {
+        private Map<String, ClaimEntry> claims = new TreeMap<>();
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private final File folder;
+    private final String workerId;
+    private final long claimTimeoutMillis;
+
+    public WorkQueue(File folder, String workerId, Duration claimTimeout) {
+        this.folder = folder;
+        this.workerId = workerId;
+        this.claimTimeoutMillis = claimTimeout.toMillis();
+    }
+
+    /**
+     * @return pid@host of this process
+     */
+    public static String getDefaultWorkerId() {
+        return ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public Claim claim(String deckName, String fingerprint, File deckFile) throws IOException {
+        return locked(() -> {
+            if (RegenerationManifest.load(folder).isUpToDate(deckName, fingerprint, deckFile)) {
+                return Claim.DONE;
+            }
+            State state = readState();
+            ClaimEntry entry = state.claims.get(deckName);
+            long now = System.currentTimeMillis();
+            if (entry != null && fingerprint.equals(entry.fingerprint) && !workerId.equals(entry.worker) && now - entry.claimedAt < claimTimeoutMillis) {
+                return Claim.CLAIMED_ELSEWHERE;
+            }
+            if (entry != null && !workerId.equals(entry.worker)) {
+                logger.info("Claim of {} by {} taken over", deckName, entry.worker);
+            }
+            ClaimEntry claim = new ClaimEntry();
+            claim.fingerprint = fingerprint;
+            claim.worker = workerId;
+            claim.claimedAt = now;
+            state.claims.put(deckName, claim);
+            writeState(state);
+            return Claim.CLAIMED;
+        });
+    }
+
+    /**
+     * Record the deck written in the manifest, then drop the claim.
+     */
+    public void complete(String deckName, String fingerprint) throws IOException {
+        locked(() -> {
+            RegenerationManifest manifest = RegenerationManifest.load(folder);
+            manifest.put(deckName, fingerprint);
+            manifest.save(folder);
+            removeClaim(deckName);
+            return null;
+        });
+    }
+
+    /**
+     * Drop the claim of a failed deck, another worker or the next run can generate it.
+     */
+    public void release(String deckName) throws IOException {
+        locked(() -> {
+            removeClaim(deckName);
+            return null;
+        });
+    }
+
+    private void removeClaim(String deckName) throws IOException {
+        State state = readState();
+        ClaimEntry entry = state.claims.get(deckName);
+        if (entry != null && workerId.equals(entry.worker)) {
+            state.claims.remove(deckName);
+            writeState(state);
+        }
+    }
+
+    private <T> T locked(LockedAction<T> action) throws IOException {
+        synchronized (PROCESS_LOCK) {
+            try (FileChannel channel = FileChannel.open(new File(folder, LOCK_FILE_NAME).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+
+    private State readState() throws IOException {
+        File file = new File(folder, FILE_NAME);
+        if (!file.isFile()) {
+            return new State();
+        }
+        try {
+            State state = GSON.fromJson(Files.readString(file.toPath()), State.class);
+            if (state == null || state.claims == null) {
+                return new State();
+            }
+            state.claims = new TreeMap<>(state.claims);
+            return state;
+        } catch (JsonParseException e) {
+            logger.warn("Could not read {}, claims are reset", file.getAbsolutePath(), e);
+            return new State();
+        }
+    }
+
+    private void writeState(State state) throws IOException {
+        Path target = new File(folder, FILE_NAME).toPath();
+        Path temp = Files.createTempFile(folder.toPath(), FILE_NAME, ".tmp");
+        try {
+            Files.writeString(temp, GSON.toJson(state));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
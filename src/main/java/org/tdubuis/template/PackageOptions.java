@@ -0,0 +1,24 @@
+package org.tdubuis.template;
+
+import org.tdubuis.config.ConfigFile;
+
+import java.util.zip.Deflater;
+
+/**
+ * How the pptx package of a deck is zipped.
+ * @param compressionLevel deflate level of the parts, 0 (stored) to 9, -1 for the zlib default
+ * @param mediaPackaging how the media parts of the template (already compressed images) are written
+ */
+public record PackageOptions(int compressionLevel, ConfigFile.MediaPackaging mediaPackaging) {
+    public static final PackageOptions DEFAULT = new PackageOptions(Deflater.DEFAULT_COMPRESSION, ConfigFile.MediaPackaging.COPY);
+
+    public PackageOptions {
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between -1 (default) and 9 : " + compressionLevel);
+        }
+    }
+
+    public static PackageOptions forConfig(ConfigFile config) {
+        return new PackageOptions(config.getCompressionLevelOrDefault(), config.getMediaPackagingOrDefault());
+    }
+}
@@ -0,0 +1,156 @@
+package org.tdubuis.template;
+
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.presentationml.x2006.main.CTGraphicalObjectFrame;
+import org.openxmlformats.schemas.presentationml.x2006.main.SldDocument;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.poi.ooxml.POIXMLTypeLoader.DEFAULT_XML_OPTIONS;
+
+/**
+ * Copy-on-write view of a {@link TemplateSnapshot} for one region.
+ * Every part is written back as is from the snapshot, except the slides receiving a table. Tables given as XMLBeans
+ * objects make the slide be parsed, tables given as raw XML are spliced at the end of the shape tree without parsing.
+ * Not thread-safe, one deck per region.
+ */
+public class RegionDeck {
+    private static final Pattern SHAPE_ID = Pattern.compile("<(?:\\w+:)?cNvPr\\b[^>]*?\\sid=\"(\\d+)\"");
+    private static final Pattern SHAPE_TREE_END = Pattern.compile("</(?:\\w+:)?spTree>");
+
+    private final TemplateSnapshot template;
+    private final Map<String, SlideEdit> modifiedSlides = new HashMap<>();
+
+    public RegionDeck(TemplateSnapshot template) {
+        this.template = template;
+    }
+
+    /**
+     * Copy the graphic frame (table) at the end of the shape tree of the slide, with a new shape id.
+     */
+    public void addGraphicFrame(int slideNumber, CTGraphicalObjectFrame graphicFrame) {
+        SlideEdit slide = getSlideForWrite(slideNumber);
+        if (slide.document == null) {
+            try {
+                slide.document = SldDocument.Factory.parse(new ByteArrayInputStream(template.getEntry(slide.partName)), DEFAULT_XML_OPTIONS);
+            } catch (XmlException | IOException e) {
+                throw new IllegalStateException("Could not parse template slide " + slide.partName, e);
+            }
+        }
+        CTGraphicalObjectFrame copy = slide.document.getSld().getCSld().getSpTree().addNewGraphicFrame();
+        copy.set(graphicFrame);
+        copy.getNvGraphicFramePr().getCNvPr().setId(slide.nextShapeId++);
+    }
+
+    /**
+     * @return a shape id not used yet on the slide, to be written in the cNvPr of a frame given to {@link #addGraphicFrameXml}
+     */
+    public long reserveShapeId(int slideNumber) {
+        return getSlideForWrite(slideNumber).nextShapeId++;
+    }
+
+    /**
+     * Add a p:graphicFrame element, serialized in UTF-8 with its namespace declarations, at the end of the shape tree.
+     */
+    public void addGraphicFrameXml(int slideNumber, byte[] graphicFrameXml) {
+        getSlideForWrite(slideNumber).fragments.add(graphicFrameXml);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        write(out, PackageOptions.DEFAULT);
+    }
+
+    public void write(OutputStream out, PackageOptions options) throws IOException {
+        template.write(getOverrides(), Channels.newChannel(out), options);
+    }
+
+    /**
+     * Write the deck in the file, the ZIP being streamed to the file channel.
+     */
+    public void write(File file, PackageOptions options) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            template.write(getOverrides(), channel, options);
+        }
+    }
+
+    private Map<String, byte[]> getOverrides() throws IOException {
+        Map<String, byte[]> overrides = new HashMap<>();
+        for (SlideEdit slide : modifiedSlides.values()) {
+            byte[] slideXml = template.getEntry(slide.partName);
+            if (slide.document != null) {
+                ByteArrayOutputStream slideOut = new ByteArrayOutputStream(slideXml.length * 2);
+                slide.document.save(slideOut, DEFAULT_XML_OPTIONS);
+                slideXml = slideOut.toByteArray();
+            }
+            if (!slide.fragments.isEmpty()) {
+                slideXml = splice(slide.partName, slideXml, slide.fragments);
+            }
+            overrides.put(slide.partName, slideXml);
+        }
+        return overrides;
+    }
+
+    private SlideEdit getSlideForWrite(int slideNumber) {
+        return modifiedSlides.computeIfAbsent(template.getSlidePartName(slideNumber), SlideEdit::new);
+    }
+
+
+    //Insert the fragments before the closing tag of the shape tree. Latin-1 maps bytes one to one, and UTF-8
+    //multi-byte sequences never contain ASCII, so the tag offset found in the string is the byte offset.
+    private static byte[] splice(String partName, byte[] slideXml, List<byte[]> fragments) {
+        Matcher matcher = SHAPE_TREE_END.matcher(new String(slideXml, StandardCharsets.ISO_8859_1));
+        int insertAt = -1;
+        while (matcher.find()) {
+            insertAt = matcher.start();
+        }
+        if (insertAt < 0) {
+            throw new IllegalStateException("No shape tree in template slide " + partName);
+        }
+        int length = slideXml.length;
+        for (byte[] fragment : fragments) {
+            length += fragment.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        out.write(slideXml, 0, insertAt);
+        for (byte[] fragment : fragments) {
+            out.write(fragment, 0, fragment.length);
+        }
+        out.write(slideXml, insertAt, slideXml.length - insertAt);
+        return out.toByteArray();
+    }
+
+    private static long getMaxShapeId(byte[] slideXml) {
+        long maxId = 0;
+        Matcher matcher = SHAPE_ID.matcher(new String(slideXml, StandardCharsets.ISO_8859_1));
+        while (matcher.find()) {
+            maxId = Math.max(maxId, Long.parseLong(matcher.group(1)));
+        }
+        return maxId;
+    }
+
+    private class SlideEdit {
+        private final String partName;
+        private final List<byte[]> fragments = new ArrayList<>();
+        private SldDocument document;
+        private long nextShapeId;
+
+        private SlideEdit(String partName) {
+            this.partName = partName;
+            this.nextShapeId = getMaxShapeId(template.getEntry(partName)) + 1;
+        }
+    }
+}
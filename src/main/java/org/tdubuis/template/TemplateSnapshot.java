@@ -0,0 +1,197 @@
+package org.tdubuis.template;
+
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.tdubuis.config.ConfigFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Immutable in-memory copy of the PPT template.
+ * The package is unzipped once, every entry is kept as raw bytes and the template is parsed a single time to know
+ * which part holds which slide. Region decks are then written from these bytes, only the slides receiving a table
+ * are re-parsed (see {@link RegionDeck}). The compressed bytes of the media parts are kept too, to copy them in the
+ * decks without deflating them again.
+ */
+public class TemplateSnapshot {
+    private static final Logger logger = LogManager.getLogger(TemplateSnapshot.class);
+    //Parts already compressed, deflating them again costs CPU for (almost) no gain
+    private static final Set<String> MEDIA_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "emf", "emz", "wdp", "tif", "tiff", "mp3", "mp4", "m4a");
+
+    @Getter private final File file;
+    /** SHA-256 of the template file */
+    @Getter private final String contentHash;
+    private final Map<String, byte[]> entries;
+    private final Map<String, ZipChannelWriter.RawEntry> rawMedia;
+    private final List<String> slidePartNames;
+
+    private TemplateSnapshot(File file, String contentHash, Map<String, byte[]> entries, Map<String, ZipChannelWriter.RawEntry> rawMedia, List<String> slidePartNames) {
+        this.file = file;
+        this.contentHash = contentHash;
+        this.entries = Collections.unmodifiableMap(entries);
+        this.rawMedia = Collections.unmodifiableMap(rawMedia);
+        this.slidePartNames = Collections.unmodifiableList(slidePartNames);
+    }
+
+    public static TemplateSnapshot load(File pptFile) throws IOException {
+        byte[] packageBytes = Files.readAllBytes(pptFile.toPath());
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(packageBytes))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    entries.put(entry.getName(), zis.readAllBytes());
+                }
+            }
+        }
+
+        //Parse the template once to resolve the slide order
+        List<String> slidePartNames = new ArrayList<>();
+        try (XMLSlideShow ppt = new XMLSlideShow(new ByteArrayInputStream(packageBytes))) {
+            for (XSLFSlide slide : ppt.getSlides()) {
+                slidePartNames.add(toEntryName(slide.getPackagePart().getPartName().getName()));
+            }
+        }
+        Map<String, ZipChannelWriter.RawEntry> rawMedia = readRawMedia(packageBytes, entries);
+        logger.debug("Template {} loaded : {} parts, {} media, {} slides", pptFile.getName(), entries.size(), rawMedia.size(), slidePartNames.size());
+        return new TemplateSnapshot(pptFile, sha256(packageBytes), entries, rawMedia, slidePartNames);
+    }
+
+    public int getSlideCount() {
+        return slidePartNames.size();
+    }
+
+    public String getSlidePartName(int slideNumber) {
+        if (slideNumber < 1 || slideNumber > slidePartNames.size()) {
+            throw new IllegalArgumentException("Slide " + slideNumber + " does not exist in template (" + slidePartNames.size() + " slides)");
+        }
+        return slidePartNames.get(slideNumber - 1);
+    }
+
+    public byte[] getEntry(String entryName) {
+        return entries.get(entryName);
+    }
+
+    /**
+     * Write the template package, replacing the entries present in overrides. The channel is left open.
+     */
+    public void write(Map<String, byte[]> overrides, WritableByteChannel channel, PackageOptions options) throws IOException {
+        try (ZipChannelWriter zip = new ZipChannelWriter(channel, options.compressionLevel())) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                String name = entry.getKey();
+                byte[] override = overrides.get(name);
+                if (override != null) {
+                    zip.putDeflated(name, override);
+                } else if (!isMedia(name) || options.mediaPackaging() == ConfigFile.MediaPackaging.DEFLATE) {
+                    zip.putDeflated(name, entry.getValue());
+                } else if (options.mediaPackaging() == ConfigFile.MediaPackaging.COPY && rawMedia.containsKey(name)) {
+                    zip.putRaw(name, rawMedia.get(name));
+                } else {
+                    zip.putStored(name, entry.getValue());
+                }
+            }
+            zip.finish();
+        }
+    }
+
+    private static boolean isMedia(String entryName) {
+        int dot = entryName.lastIndexOf('.');
+        return dot >= 0 && MEDIA_EXTENSIONS.contains(entryName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Compressed bytes of the media entries, from the central directory of the package. Empty when the package can not
+     * be read this way (Zip64, unknown method), the media are then stored instead of copied.
+     */
+    private static Map<String, ZipChannelWriter.RawEntry> readRawMedia(byte[] packageBytes, Map<String, byte[]> entries) {
+        Map<String, ZipChannelWriter.RawEntry> rawMedia = new LinkedHashMap<>();
+        ByteBuffer zip = ByteBuffer.wrap(packageBytes).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int endOfDirectory = -1;
+            for (int i = packageBytes.length - 22; i >= 0 && i >= packageBytes.length - 22 - 0xFFFF; i--) {
+                if (zip.getInt(i) == 0x06054b50) {
+                    endOfDirectory = i;
+                    break;
+                }
+            }
+            if (endOfDirectory < 0) {
+                return Map.of();
+            }
+            int entryCount = Short.toUnsignedInt(zip.getShort(endOfDirectory + 10));
+            long directoryOffset = Integer.toUnsignedLong(zip.getInt(endOfDirectory + 16));
+            if (entryCount == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+                return Map.of();
+            }
+            int position = (int) directoryOffset;
+            for (int i = 0; i < entryCount; i++) {
+                if (zip.getInt(position) != 0x02014b50) {
+                    return Map.of();
+                }
+                int flags = Short.toUnsignedInt(zip.getShort(position + 8));
+                int method = Short.toUnsignedInt(zip.getShort(position + 10));
+                long crc = Integer.toUnsignedLong(zip.getInt(position + 16));
+                int compressedSize = zip.getInt(position + 20);
+                long size = Integer.toUnsignedLong(zip.getInt(position + 24));
+                int nameLength = Short.toUnsignedInt(zip.getShort(position + 28));
+                int extraLength = Short.toUnsignedInt(zip.getShort(position + 30));
+                int commentLength = Short.toUnsignedInt(zip.getShort(position + 32));
+                int localHeader = zip.getInt(position + 42);
+                String name = new String(packageBytes, position + 46, nameLength, StandardCharsets.UTF_8);
+                position += 46 + nameLength + extraLength + commentLength;
+
+                boolean encrypted = (flags & 1) != 0;
+                boolean knownMethod = method == ZipChannelWriter.STORED || method == ZipChannelWriter.DEFLATED;
+                if (isMedia(name) && entries.containsKey(name) && !encrypted && knownMethod && compressedSize >= 0 && localHeader >= 0) {
+                    if (zip.getInt(localHeader) != 0x04034b50) {
+                        return Map.of();
+                    }
+                    int dataStart = localHeader + 30 + Short.toUnsignedInt(zip.getShort(localHeader + 26)) + Short.toUnsignedInt(zip.getShort(localHeader + 28));
+                    if (Math.addExact(dataStart, compressedSize) > packageBytes.length) {
+                        return Map.of();
+                    }
+                    byte[] data = Arrays.copyOfRange(packageBytes, dataStart, dataStart + compressedSize);
+                    rawMedia.put(name, new ZipChannelWriter.RawEntry(method, crc, size, data));
+                }
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | ArithmeticException e) {
+            logger.debug("Media of the template can not be copied as is", e);
+            return Map.of();
+        }
+        return rawMedia;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toEntryName(String partName) {
+        return partName.startsWith("/") ? partName.substring(1) : partName;
+    }
+}
@@ -0,0 +1,208 @@
+package org.tdubuis.template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal ZIP writer streaming the package to a channel through a single buffer.
+ * Parts are given whole, so the sizes and CRC are written in the local headers (no data descriptor), and entries
+ * already compressed in the template can be copied as is. No Zip64 : a deck is far below 4 GB and 65535 parts.
+ */
+class ZipChannelWriter implements AutoCloseable {
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int UTF8_FLAG = 0x800;
+
+    /**
+     * Entry as found in the template package, data compressed with method.
+     */
+    record RawEntry(int method, long crc, long size, byte[] data) {
+    }
+
+    private final WritableByteChannel channel;
+    private final int compressionLevel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer centralDirectory = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteArrayOutputStream centralDirectoryOut = new ByteArrayOutputStream();
+    private final CRC32 crc = new CRC32();
+    private final int dosTime;
+    private final int dosDate;
+    private Deflater deflater;
+    private byte[] deflateChunk;
+    private long offset;
+    private int entryCount;
+
+    /**
+     * @param compressionLevel level of the deflated entries, 0 stores them
+     */
+    ZipChannelWriter(WritableByteChannel channel, int compressionLevel) {
+        this.channel = channel;
+        this.compressionLevel = compressionLevel;
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = now.getHour() << 11 | now.getMinute() << 5 | now.getSecond() / 2;
+        this.dosDate = (now.getYear() - 1980) << 9 | now.getMonthValue() << 5 | now.getDayOfMonth();
+    }
+
+    /**
+     * Deflate the data at the compression level of the writer (stored when the level is 0).
+     */
+    void putDeflated(String name, byte[] data) throws IOException {
+        if (compressionLevel == 0) {
+            putStored(name, data);
+            return;
+        }
+        if (deflater == null) {
+            deflater = new Deflater(compressionLevel, true);
+            deflateChunk = new byte[BUFFER_SIZE];
+        }
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        while (!deflater.finished()) {
+            int length = deflater.deflate(deflateChunk);
+            compressed.write(deflateChunk, 0, length);
+        }
+        putEntry(name, DEFLATED, checksum(data), data.length, compressed.toByteArray());
+    }
+
+    void putStored(String name, byte[] data) throws IOException {
+        putEntry(name, STORED, checksum(data), data.length, data);
+    }
+
+    void putRaw(String name, RawEntry entry) throws IOException {
+        putEntry(name, entry.method(), entry.crc(), entry.size(), entry.data());
+    }
+
+    /**
+     * Write the central directory and flush, the channel is left open.
+     */
+    void finish() throws IOException {
+        writeCentralDirectoryBuffer();
+        byte[] directory = centralDirectoryOut.toByteArray();
+        long directoryOffset = offset;
+        if (entryCount > 0xFFFF || directoryOffset + directory.length > 0xFFFFFFFFL) {
+            throw new IOException("Package too large, Zip64 is not supported");
+        }
+        write(directory);
+        ensureRemaining(22);
+        buffer.putInt(0x06054b50);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) entryCount);
+        buffer.putShort((short) entryCount);
+        buffer.putInt(directory.length);
+        buffer.putInt((int) directoryOffset);
+        buffer.putShort((short) 0);
+        offset += 22;
+        flush();
+    }
+
+    @Override
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    private void putEntry(String name, int method, long checksum, long size, byte[] data) throws IOException {
+        if (size > 0xFFFFFFFFL || data.length > 0xFFFFFFFFL || offset > 0xFFFFFFFFL) {
+            throw new IOException("Part " + name + " too large, Zip64 is not supported");
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int flags = nameBytes.length == name.length() ? 0 : UTF8_FLAG;
+
+        ensureRemaining(30 + nameBytes.length);
+        buffer.putInt(0x04034b50);
+        buffer.putShort((short) 20);
+        buffer.putShort((short) flags);
+        buffer.putShort((short) method);
+        buffer.putShort((short) dosTime);
+        buffer.putShort((short) dosDate);
+        buffer.putInt((int) checksum);
+        buffer.putInt(data.length);
+        buffer.putInt((int) size);
+        buffer.putShort((short) nameBytes.length);
+        buffer.putShort((short) 0);
+        buffer.put(nameBytes);
+        long headerOffset = offset;
+        offset += 30 + nameBytes.length;
+        write(data);
+
+        if (centralDirectory.remaining() < 46 + nameBytes.length) {
+            writeCentralDirectoryBuffer();
+        }
+        centralDirectory.putInt(0x02014b50);
+        centralDirectory.putShort((short) 20);
+        centralDirectory.putShort((short) 20);
+        centralDirectory.putShort((short) flags);
+        centralDirectory.putShort((short) method);
+        centralDirectory.putShort((short) dosTime);
+        centralDirectory.putShort((short) dosDate);
+        centralDirectory.putInt((int) checksum);
+        centralDirectory.putInt(data.length);
+        centralDirectory.putInt((int) size);
+        centralDirectory.putShort((short) nameBytes.length);
+        centralDirectory.putShort((short) 0);
+        centralDirectory.putShort((short) 0);
+        centralDirectory.putShort((short) 0);
+        centralDirectory.putShort((short) 0);
+        centralDirectory.putInt(0);
+        centralDirectory.putInt((int) headerOffset);
+        centralDirectory.put(nameBytes);
+        entryCount++;
+    }
+
+    private long checksum(byte[] data) {
+        crc.reset();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    //Small data goes through the buffer, large data is written directly once the buffer is flushed
+    private void write(byte[] data) throws IOException {
+        if (data.length <= buffer.remaining()) {
+            buffer.put(data);
+        } else {
+            flush();
+            if (data.length < buffer.capacity()) {
+                buffer.put(data);
+            } else {
+                writeFully(ByteBuffer.wrap(data));
+            }
+        }
+        offset += data.length;
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private void writeCentralDirectoryBuffer() {
+        centralDirectoryOut.write(centralDirectory.array(), 0, centralDirectory.position());
+        centralDirectory.clear();
+    }
+}
@@ -0,0 +1,155 @@
+package org.tdubuis.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.tdubuis.config.ConfigFileTest.entry;
+
+/**
+ * {@link CompiledConfig#compile} must reject each invalid config with a message naming the entry, and resolve the
+ * valid ones by title and by slide.
+ */
+class CompiledConfigTest {
+
+    @Test
+    void validConfigIsResolved() {
+        ConfigFile.Config synthesis = entry("Synth\u00e8se", 2, 3);
+        ConfigFile.Config staff = entry("Effectif", 4, 5);
+        CompiledConfig compiled = CompiledConfig.compile(List.of(synthesis, staff));
+
+        CompiledConfig.Entry entry = compiled.getByTitle("Effectif");
+        assertEquals(1, entry.index());
+        assertEquals(4, entry.slideMonth());
+        assertEquals(5, entry.slideYTD());
+        assertEquals(900, entry.anchor().getWidth());
+        assertSame(entry, compiled.getBySlide(4));
+        assertSame(entry, compiled.getBySlide(5));
+        assertSame(compiled.getByTitle("Synth\u00e8se"), compiled.getBySlide(3));
+        assertNull(compiled.getBySlide(1));
+        assertNull(compiled.getByTitle("Absent"));
+        assertEquals(5, compiled.getMaxSlide());
+        assertEquals("Effectif", compiled.findFirstTitle("Tableau Effectif mensuel"));
+    }
+
+    @Test
+    void getConfigReturnsTheEntryOfTheFile() {
+        ConfigFile.Config staff = entry("Effectif", 4, 5);
+        ConfigFile config = new ConfigFile();
+        config.setConfig(List.of(entry("Synth\u00e8se", 2, 3), staff));
+        assertSame(staff, config.getConfig("Effectif"));
+        assertNull(config.getConfig("Absent"));
+    }
+
+    @Test
+    void noEntry() {
+        assertInvalid("no config entry", (List<ConfigFile.Config>) null);
+        assertInvalid("no config entry", List.of());
+        assertInvalid("entry 2 is empty", Arrays.asList(entry("Effectif", 2, 3), null));
+    }
+
+    @Test
+    void noTitle() {
+        assertInvalid("entry 1 has no title", List.of(entry(null, 2, 3)));
+        assertInvalid("entry 1 has no title", List.of(entry("  ", 2, 3)));
+    }
+
+    @Test
+    void slidesAndTextSizeMustBePositive() {
+        assertInvalid("entry 1 \"Effectif\" : slideMonth must be set and positive (0)", List.of(entry("Effectif", 0, 3)));
+        assertInvalid("entry 1 \"Effectif\" : slideYTD must be set and positive (-1)", List.of(entry("Effectif", 2, -1)));
+        ConfigFile.Config noSlide = entry("Effectif", 2, 3);
+        noSlide.setSlideYTD(null);
+        assertInvalid("entry 1 \"Effectif\" : slideYTD must be set and positive (null)", List.of(noSlide));
+        ConfigFile.Config noTextSize = entry("Effectif", 2, 3);
+        noTextSize.setTextSize(null);
+        assertInvalid("entry 1 \"Effectif\" : textSize must be set and positive (null)", List.of(noTextSize));
+        ConfigFile.Config zeroTextSize = entry("Effectif", 2, 3);
+        zeroTextSize.setTextSize(0);
+        assertInvalid("entry 1 \"Effectif\" : textSize must be set and positive (0)", List.of(zeroTextSize));
+    }
+
+    @Test
+    void positionMustBeSetAndInTheSlide() {
+        ConfigFile.Config noPosition = entry("Effectif", 2, 3);
+        noPosition.setPosition(null);
+        assertInvalid("entry 1 \"Effectif\" has no position", List.of(noPosition));
+
+        ConfigFile.Config negative = entry("Effectif", 2, 3);
+        negative.getPosition().setX(-1);
+        negative.getPosition().setY(null);
+        assertInvalid("entry 1 \"Effectif\" : position.x must be set and not negative (-1), "
+                + "entry 1 \"Effectif\" : position.y must be set and not negative (null)", List.of(negative));
+
+        ConfigFile.Config empty = entry("Effectif", 2, 3);
+        empty.getPosition().setWidth(0);
+        empty.getPosition().setHeight(-5);
+        assertInvalid("entry 1 \"Effectif\" : position.width must be set and positive (0), "
+                + "entry 1 \"Effectif\" : position.height must be set and positive (-5)", List.of(empty));
+
+        //The slide corner is a valid position
+        ConfigFile.Config corner = entry("Effectif", 2, 3);
+        corner.getPosition().setX(0);
+        corner.getPosition().setY(0);
+        assertEquals(0, CompiledConfig.compile(List.of(corner)).getByTitle("Effectif").anchor().getX());
+    }
+
+    @Test
+    void sameTitleTwice() {
+        assertInvalid("entry 2 \"Effectif\" : same title as entry 1", List.of(entry("Effectif", 2, 3), entry("Effectif", 4, 5)));
+    }
+
+    @Test
+    void titleContainingAnEarlierTitle() {
+        assertInvalid("entry 2 \"Effectif total\" is never found : its title contains the title of entry 1 \"Effectif\"",
+                List.of(entry("Effectif", 2, 3), entry("Effectif total", 4, 5)));
+        //The other way around the longer title is found first
+        CompiledConfig compiled = CompiledConfig.compile(List.of(entry("Effectif total", 2, 3), entry("Effectif", 4, 5)));
+        assertEquals("Effectif total", compiled.findFirstTitle("Effectif total"));
+        assertEquals("Effectif", compiled.findFirstTitle("Effectif moyen"));
+    }
+
+    @Test
+    void slideUsedTwice() {
+        assertInvalid("entry 2 \"Effectif\" : slide 3 already used by entry 1 \"Synth\u00e8se\"",
+                List.of(entry("Synth\u00e8se", 2, 3), entry("Effectif", 3, 4)));
+        assertInvalid("entry 2 \"Effectif\" : slide 2 already used by entry 1 \"Synth\u00e8se\"",
+                List.of(entry("Synth\u00e8se", 2, 3), entry("Effectif", 4, 2)));
+    }
+
+    @Test
+    void slideMonthEqualsSlideYTD() {
+        assertInvalid("entry 1 \"Effectif\" : slideMonth and slideYTD are both slide 2", List.of(entry("Effectif", 2, 2)));
+    }
+
+    @Test
+    void everyInvalidEntryIsListed() {
+        List<ConfigFile.Config> config = new ArrayList<>();
+        config.add(entry("Synth\u00e8se", 2, 3));
+        config.add(entry(null, 4, 5));
+        config.add(entry("Effectif", 6, 6));
+        config.add(entry("Synth\u00e8se", 7, 8));
+        assertInvalid("entry 2 has no title, entry 3 \"Effectif\" : slideMonth and slideYTD are both slide 6, "
+                + "entry 4 \"Synth\u00e8se\" : same title as entry 1", config);
+    }
+
+    @Test
+    void slideCountOfTheTemplate() {
+        CompiledConfig compiled = CompiledConfig.compile(List.of(entry("Synth\u00e8se", 2, 3), entry("Effectif", 4, 6)));
+        assertNull(compiled.checkSlideCount(6));
+        assertEquals("Slides past the 4 slides of the template : \"Effectif\" slideYTD 6", compiled.checkSlideCount(4));
+        assertEquals("Slides past the 3 slides of the template : \"Effectif\" slideMonth 4, \"Effectif\" slideYTD 6",
+                compiled.checkSlideCount(3));
+    }
+
+    private static void assertInvalid(String errors, List<ConfigFile.Config> config) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CompiledConfig.compile(config));
+        assertEquals("Invalid config : " + errors, e.getMessage());
+    }
+}
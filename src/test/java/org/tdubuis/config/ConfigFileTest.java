@@ -0,0 +1,84 @@
+package org.tdubuis.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * {@link ConfigFile#copy()} must keep every setting, including the ones added after it was written.
+ */
+class ConfigFileTest {
+
+    @Test
+    void copyKeepsEveryField() throws ReflectiveOperationException {
+        ConfigFile config = new ConfigFile();
+        int value = 1;
+        for (Field field : settings()) {
+            Class<?> type = field.getType();
+            if (type == String.class) {
+                field.set(config, field.getName());
+            } else if (type == Integer.class) {
+                field.set(config, value++);
+            } else if (type == boolean.class) {
+                field.set(config, true);
+            } else if (type.isEnum()) {
+                Object[] constants = type.getEnumConstants();
+                field.set(config, constants[constants.length - 1]);
+            } else if (type == List.class) {
+                field.set(config, List.of(entry("Effectif", 2, 3)));
+            } else {
+                throw new AssertionError("no test value for " + field);
+            }
+        }
+        CompiledConfig compiled = config.compile();
+
+        ConfigFile copy = config.copy();
+        for (Field field : settings()) {
+            assertEquals(field.get(config), field.get(copy), field.getName());
+        }
+        assertSame(config.getConfig(), copy.getConfig());
+        assertSame(compiled, copy.getCompiled());
+        assertEquals(config, copy);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        ConfigFile config = new ConfigFile();
+        config.setOutputFolder("out");
+        config.setConfig(List.of(entry("Effectif", 2, 3)));
+
+        ConfigFile copy = config.copy();
+        copy.setOutputFolder("job");
+        assertEquals("out", config.getOutputFolder());
+        assertNotEquals(config, copy);
+    }
+
+    static ConfigFile.Config entry(String title, int slideMonth, int slideYTD) {
+        ConfigFile.Position position = new ConfigFile.Position();
+        position.setX(20);
+        position.setY(60);
+        position.setWidth(900);
+        position.setHeight(400);
+        ConfigFile.Config entry = new ConfigFile.Config();
+        entry.setTitle(title);
+        entry.setSlideMonth(slideMonth);
+        entry.setSlideYTD(slideYTD);
+        entry.setTextSize(18);
+        entry.setPosition(position);
+        return entry;
+    }
+
+    private static List<Field> settings() {
+        return Arrays.stream(ConfigFile.class.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()))
+                .peek(field -> field.setAccessible(true))
+                .toList();
+    }
+}
@@ -0,0 +1,88 @@
+package org.tdubuis.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link TitleMatcher} must give the result of the contains scan it replaces : the first title of the config found in
+ * the text.
+ */
+class TitleMatcherTest {
+
+    @Test
+    void earlierEntryWinsWhenTitlesOverlap() {
+        assertEquals("Chiffre d'affaires", new TitleMatcher(List.of("Chiffre d'affaires", "affaires")).findFirstTitle("Chiffre d'affaires net"));
+        assertEquals("affaires", new TitleMatcher(List.of("affaires", "Chiffre d'affaires")).findFirstTitle("Chiffre d'affaires net"));
+        //The position in the text does not matter, only the order of the config
+        assertEquals("Marge", new TitleMatcher(List.of("Marge", "Effectif")).findFirstTitle("Effectif et Marge"));
+        assertEquals("d'aff", new TitleMatcher(List.of("Chiffre", "d'aff", "Chiffre d'affaires")).findFirstTitle("d'affaires"));
+    }
+
+    @Test
+    void titleSuffixOfAnotherTitle() {
+        assertEquals("Total r\u00e9gion", new TitleMatcher(List.of("Total r\u00e9gion", "r\u00e9gion")).findFirstTitle("Total r\u00e9gion :"));
+        assertEquals("r\u00e9gion", new TitleMatcher(List.of("r\u00e9gion", "Total r\u00e9gion")).findFirstTitle("Total r\u00e9gion :"));
+        assertEquals("r\u00e9gion", new TitleMatcher(List.of("Total r\u00e9gion", "r\u00e9gion")).findFirstTitle("Par r\u00e9gion"));
+        //"ab" is read before failing on "c", the match of "bc" needs the fail link
+        assertEquals("bc", new TitleMatcher(List.of("abx", "bc")).findFirstTitle("abc"));
+    }
+
+    @Test
+    void accentedTitles() {
+        TitleMatcher matcher = new TitleMatcher(List.of("Synth\u00e8se :", "Co\u00fbt moyen", "R\u00e9sultats PO", "\u00c9cart \u00e0 l'objectif"));
+        assertEquals("Synth\u00e8se :", matcher.findFirstTitle("Synth\u00e8se : Janvier"));
+        assertEquals("Co\u00fbt moyen", matcher.findFirstTitle("  Co\u00fbt moyen (\u20ac)"));
+        assertEquals("\u00c9cart \u00e0 l'objectif", matcher.findFirstTitle("\u00c9cart \u00e0 l'objectif 2025"));
+        assertNull(matcher.findFirstTitle("Synthese :"));
+        assertNull(matcher.findFirstTitle("Cout moyen"));
+    }
+
+    @Test
+    void noMatch() {
+        TitleMatcher matcher = new TitleMatcher(List.of("Synth\u00e8se :", "Effectif"));
+        assertNull(matcher.findFirstTitle("RRF"));
+        assertNull(matcher.findFirstTitle(""));
+        assertNull(matcher.findFirstTitle("Effecti"));
+        assertNull(new TitleMatcher(List.of()).findFirstTitle("Effectif"));
+    }
+
+    @Test
+    void sameResultAsTheContainsScan() {
+        Random random = new Random(42);
+        String alphabet = "ab\u00e9\u00e8\u00e0 :";
+        for (int run = 0; run < 200; run++) {
+            List<String> titles = new ArrayList<>();
+            for (int i = 1 + random.nextInt(6); i > 0; i--) {
+                titles.add(randomText(random, alphabet, 1 + random.nextInt(4)));
+            }
+            TitleMatcher matcher = new TitleMatcher(titles);
+            for (int i = 0; i < 50; i++) {
+                String text = randomText(random, alphabet, random.nextInt(12));
+                assertEquals(findFirstTitleByContains(titles, text), matcher.findFirstTitle(text), titles + " in \"" + text + "\"");
+            }
+        }
+    }
+
+    private static String findFirstTitleByContains(List<String> titles, String text) {
+        for (String title : titles) {
+            if (text.contains(title)) {
+                return title;
+            }
+        }
+        return null;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package org.tdubuis.format;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * The compiled formatters must write what POI's {@link DataFormatter} writes for the formats of the workbooks ("mmm-yy",
+ * "0%", "#,##0", "General") and the constructs around them : sections, scaling, padding, half up rounding, date tokens.
+ */
+class CellFormatterTest {
+    private static final Locale LOCALE = Locale.US;
+    //Index of a custom format, the format string decides if it is a date
+    private static final short CUSTOM_FORMAT = 164;
+
+    private static final double[] NUMBERS = {0, 1, -1, 0.5, 1.5, 2.5, -2.5, 0.125, 0.004, -0.004, 0.045, 12.345,
+            1234.5, -1234.5, 1234567.891, -1234567.891, 999999.5, 1e9};
+
+    private static final String[] NUMBER_FORMATS = {
+            //Formats of the workbooks
+            "0%", "#,##0",
+            //Padding and rounding
+            "0", "00000", "0.00", "#,##0.00", "0.0#", "#.##", "0.000",
+            //Percent and thousands scaling
+            "0.0%", "#,##0,", "#,##0.0,,",
+            //Sections
+            "#,##0;(#,##0)", "#,##0;-#,##0;\"-\"", "0.00;[Red]-0.00", "#,##0 \"\u20ac\";-#,##0 \"\u20ac\"",
+    };
+
+    //DataFormatter writes the raw value for a quoted suffix after a scaling comma or a percent, Excel formats it
+    private static final String[][] NUMBERS_DATAFORMATTER_DOES_NOT_FORMAT = {
+            {"#,##0.0,,\" M\"", "1234567.891", "1.2 M"},
+            {"#,##0.0,,\" M\"", "999999.5", "1.0 M"},
+            {"#,##0.0,,\" M\"", "-1234567.891", "-1.2 M"},
+            {"0%\" de l'objectif\"", "0.125", "13% de l'objectif"},
+            {"0%\" de l'objectif\"", "-1", "-100% de l'objectif"},
+    };
+
+    //2024-01-01, 2024-02-15 18:00, 2024-12-31 12:00, 2000-01-01 00:15, 1900-03-01
+    private static final double[] DATES = {45292, 45337.75, 45657.5, 36526.0104166667, 61};
+
+    private static final String[] DATE_FORMATS = {
+            //Format of the workbooks
+            "mmm-yy",
+            //Date tokens
+            "dd/mm/yyyy", "d-mmm-yy", "mmmm yyyy", "dddd d mmmm", "ddd dd/mm/yy", "m/d/yy", "yyyy-mm-dd",
+            //Time tokens, "mm" is a minute after an hour or before a second
+            "hh:mm", "h:mm AM/PM", "hh:mm:ss", "yyyy-mm-dd hh:mm", "mm:ss",
+    };
+
+    @Test
+    void numberFormatsLikeDataFormatter() {
+        List<String> differences = new ArrayList<>();
+        for (String format : NUMBER_FORMATS) {
+            CellFormatter formatter = NumberPatternFormatter.compile(format, LOCALE);
+            for (double value : NUMBERS) {
+                compare(differences, formatter, format, value);
+            }
+        }
+        assertEquals(List.of(), differences);
+    }
+
+    @Test
+    void numberFormatsDataFormatterDoesNotFormat() {
+        for (String[] row : NUMBERS_DATAFORMATTER_DOES_NOT_FORMAT) {
+            assertEquals(row[2], NumberPatternFormatter.compile(row[0], LOCALE).format(Double.parseDouble(row[1])), row[0] + " on " + row[1]);
+        }
+    }
+
+    @Test
+    void dateFormatsLikeDataFormatter() {
+        List<String> differences = new ArrayList<>();
+        for (String format : DATE_FORMATS) {
+            CellFormatter formatter = DateFormatter.compile(format, LOCALE);
+            for (double value : DATES) {
+                compare(differences, formatter, format, value);
+            }
+        }
+        assertEquals(List.of(), differences);
+    }
+
+    @Test
+    void generalLikeDataFormatter() {
+        List<String> differences = new ArrayList<>();
+        for (double value : new double[]{0, 1, -1, 42, 1234567, -1234567, 0.5, -2.25, 1234.5678}) {
+            compare(differences, GeneralFormatter.INSTANCE, "General", value);
+        }
+        assertEquals(List.of(), differences);
+    }
+
+    @Test
+    void registryCompilesTheFormatOnce() {
+        CellFormatter formatter = FormatterRegistry.get(CUSTOM_FORMAT, "#,##0.000");
+        assertSame(formatter, FormatterRegistry.get(CUSTOM_FORMAT, "#,##0.000"));
+        assertSame(GeneralFormatter.INSTANCE, FormatterRegistry.get(CUSTOM_FORMAT, "General"));
+        assertSame(GeneralFormatter.INSTANCE, FormatterRegistry.get(CUSTOM_FORMAT, null));
+    }
+
+    @Test
+    void unsupportedFormatsFallBackToGeneral() {
+        //Scientific, fraction and elapsed time formats are logged and written with the General format
+        for (String format : new String[]{"0.00E+00", "# ?/?", "[h]:mm:ss"}) {
+            assertSame(GeneralFormatter.INSTANCE, FormatterRegistry.get(CUSTOM_FORMAT, format), format);
+        }
+    }
+
+    private static void compare(List<String> differences, CellFormatter formatter, String format, double value) {
+        String expected = new DataFormatter(LOCALE).formatRawCellContents(value, CUSTOM_FORMAT, format);
+        String actual = formatter.format(value);
+        if (!expected.equals(actual)) {
+            differences.add(format + " on " + value + " : expected \"" + expected + "\", was \"" + actual + "\"");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.tdubuis.generator;
+
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFShape;
+import org.apache.poi.xslf.usermodel.XSLFTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.RunReport;
+import org.tdubuis.template.RegionDeck;
+import org.tdubuis.template.TemplateSnapshot;
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * {@link DirectTableGenerator} must write the table XML that {@link XslfTableGenerator} builds : same elements, same
+ * attributes, same text, only the name of the frame differs (XSLF names it after its scratch slide).
+ */
+class DirectTableGeneratorTest {
+    private static final String[] TEXTS = {
+            "Total", "12 345", "-4%", "",
+            "R\u00e9sultat & <marge>", "\"quoted\" 'text'", "tab\there", "  spaces  ",
+            "control \u0001 \u0008 \u001F chars", "\ud83d\udcc8 chart", "\ufffe\uffff end", "line\nbreak",
+    };
+
+    @Test
+    void sameXmlAsXslfGenerator(@TempDir Path folder) throws IOException {
+        TemplateSnapshot template = emptyTemplate(folder);
+        TableData data = createTable();
+
+        List<String> direct = describeTable(generate(new DirectTableGenerator(RunReport.NONE), template, data));
+        List<String> xslf = describeTable(generate(new XslfTableGenerator(RunReport.NONE), template, data));
+        for (int i = 0; i < Math.min(direct.size(), xslf.size()); i++) {
+            assertEquals(xslf.get(i), direct.get(i), "node " + i);
+        }
+        assertEquals(xslf.size(), direct.size());
+    }
+
+    @Test
+    void invalidXmlCharactersAreReplaced(@TempDir Path folder) throws IOException {
+        TableData data = createTable();
+        List<String> direct = describeTable(generate(new DirectTableGenerator(RunReport.NONE), emptyTemplate(folder), data));
+        //Replaced by "?" like XMLBeans does when it saves the XSLF table, the surrogate pair is kept
+        assertEquals(1, direct.stream().filter(node -> node.endsWith("\"control ? ? ? chars\"")).count());
+        assertEquals(1, direct.stream().filter(node -> node.endsWith("\"?? end\"")).count());
+        assertEquals(1, direct.stream().filter(node -> node.endsWith("\"\ud83d\udcc8 chart\"")).count());
+    }
+
+    private static TableData createTable() {
+        StyleTable styleTable = new StyleTable();
+        int[] styleIds = {
+                styleTable.intern(CellStyle.EMPTY),
+                styleTable.intern(new CellStyle(new Color(0xDDEEFF), CellStyle.VerticalAlign.MIDDLE, CellStyle.TextAlign.RIGHT, "Arial", Color.RED, true, false, Color.BLACK, null, null, null)),
+                styleTable.intern(new CellStyle(null, CellStyle.VerticalAlign.TOP, CellStyle.TextAlign.CENTER, null, new Color(0, 0, 255, 128), false, true, null, Color.BLUE, Color.GREEN, Color.ORANGE)),
+                styleTable.intern(new CellStyle(new Color(10, 20, 30, 200), CellStyle.VerticalAlign.BOTTOM, CellStyle.TextAlign.JUSTIFY, "Calibri", null, true, true, Color.GRAY, Color.GRAY, Color.GRAY, Color.GRAY)),
+        };
+        int rows = 3;
+        int columns = TEXTS.length / rows;
+        int[] cellStyleIds = new int[TEXTS.length];
+        for (int cell = 0; cell < cellStyleIds.length; cell++) {
+            cellStyleIds[cell] = styleIds[cell % styleIds.length];
+        }
+        //Texts column by column
+        String[] texts = new String[TEXTS.length];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                texts[column * rows + row] = TEXTS[row * columns + column];
+            }
+        }
+        float[] columnWidths = {40f, 55.5f, 80f, 120f};
+        int[] mergedRegions = {0, 0, 1, 2, 1, 2, 0, 0};
+        return new TableData(rows, columns, texts, cellStyleIds, columnWidths, mergedRegions, styleTable);
+    }
+
+    private static TemplateSnapshot emptyTemplate(Path folder) throws IOException {
+        File templateFile = folder.resolve("template.pptx").toFile();
+        try (XMLSlideShow ppt = new XMLSlideShow(); OutputStream out = new FileOutputStream(templateFile)) {
+            ppt.createSlide();
+            ppt.write(out);
+        }
+        return TemplateSnapshot.load(templateFile);
+    }
+
+    private static byte[] generate(TableGenerator generator, TemplateSnapshot template, TableData data) throws IOException {
+        RegionDeck deck = new RegionDeck(template);
+        try (generator) {
+            generator.generateSlide(data, deck, new CompiledConfig.Anchor(20, 60, 900, 400), 18, 1);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        deck.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return elements of the graphic frame of the table in document order, with their sorted attributes and text
+     */
+    private static List<String> describeTable(byte[] deck) throws IOException {
+        try (XMLSlideShow ppt = new XMLSlideShow(new ByteArrayInputStream(deck))) {
+            XSLFTable table = null;
+            for (XSLFShape shape : ppt.getSlides().get(0).getShapes()) {
+                if (shape instanceof XSLFTable slideTable) {
+                    table = slideTable;
+                }
+            }
+            assertNotNull(table);
+            List<String> nodes = new ArrayList<>();
+            describe(table.getXmlObject().getDomNode(), "", nodes);
+            return nodes;
+        }
+    }
+
+    private static void describe(Node node, String path, List<String> nodes) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            String childPath = path + "/" + child.getNamespaceURI() + ":" + child.getLocalName();
+            List<String> attributes = new ArrayList<>();
+            NamedNodeMap map = child.getAttributes();
+            for (int i = 0; i < map.getLength(); i++) {
+                Attr attribute = (Attr) map.item(i);
+                boolean frameName = child.getLocalName().equals("cNvPr") && attribute.getName().equals("name");
+                if (!attribute.getName().startsWith("xmlns") && !frameName) {
+                    attributes.add(attribute.getName() + "=" + attribute.getValue());
+                }
+            }
+            attributes.sort(null);
+            String text = child.getLocalName().equals("t") ? " \"" + text(child) + "\"" : "";
+            nodes.add(childPath + " " + attributes + text);
+            describe(child, childPath, nodes);
+        }
+    }
+
+    private static String text(Node element) {
+        StringBuilder text = new StringBuilder();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            text.append(child.getNodeValue());
+        }
+        return text.toString();
+    }
+}
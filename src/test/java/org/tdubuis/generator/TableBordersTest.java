@@ -0,0 +1,368 @@
+package org.tdubuis.generator;
+
+import org.apache.poi.sl.usermodel.TableCell;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFShape;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTable;
+import org.apache.poi.xslf.usermodel.XSLFTableCell;
+import org.apache.poi.xslf.usermodel.XSLFTableRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openxmlformats.schemas.drawingml.x2006.main.CTLineProperties;
+import org.openxmlformats.schemas.drawingml.x2006.main.CTTableCell;
+import org.openxmlformats.schemas.drawingml.x2006.main.CTTableCellProperties;
+import org.tdubuis.config.CompiledConfig;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.report.RunReport;
+import org.tdubuis.template.RegionDeck;
+import org.tdubuis.template.TemplateSnapshot;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Borders and merges of wide tables (210 columns, 105 merged regions), computed by {@link TableBorders} and written by
+ * both generators, checked against the XSLF post-processing it replaces.
+ */
+class TableBordersTest {
+    private static final int ROWS = 8;
+    private static final int COLUMNS = 210;
+    //One block of 3 merged regions every BLOCK_WIDTH columns
+    private static final int BLOCK_WIDTH = 6;
+
+    private static final Color TOP = new Color(0x110000);
+    private static final Color RIGHT = new Color(0x002200);
+    private static final Color BOTTOM = new Color(0x000033);
+    private static final Color LEFT = new Color(0x440044);
+    private static final CellStyle BOXED = style(TOP, BOTTOM, RIGHT, LEFT);
+
+    @Test
+    void leftBorderIsCopiedOnTheRightEdgeOfThePreviousCell() {
+        TableBorders borders = new TableBorders(createTable(false, false));
+
+        int copied = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (isBoxed(row, column) && column > 0) {
+                    assertEquals(rgb(LEFT), borders.getEdge(row, column - 1, TableBorders.RIGHT), "cell " + row + "," + (column - 1));
+                    copied++;
+                }
+                //The left edge itself is never written from the style
+                assertEquals(TableBorders.NO_FILL, borders.getEdge(row, column, TableBorders.LEFT), "cell " + row + "," + column);
+            }
+        }
+        assertEquals(COLUMNS / BLOCK_WIDTH * 2, copied);
+    }
+
+    @Test
+    void mergedRegionsHaveTheirSpans() {
+        TableBorders borders = new TableBorders(createTable(true, false));
+
+        for (int column = 0; column + BLOCK_WIDTH <= COLUMNS; column += BLOCK_WIDTH) {
+            //Horizontal : row 0, 2 columns
+            assertEquals(2, borders.getGridSpan(0, column));
+            assertEquals(0, borders.getRowSpan(0, column));
+            assertTrue(borders.isHMerge(0, column + 1));
+            assertFalse(borders.isVMerge(0, column + 1));
+            //Vertical : rows 2-3, 1 column
+            assertEquals(2, borders.getRowSpan(2, column + 2));
+            assertEquals(0, borders.getGridSpan(2, column + 2));
+            assertTrue(borders.isVMerge(3, column + 2));
+            assertFalse(borders.isHMerge(3, column + 2));
+            //Both : rows 5-6, 3 columns
+            assertEquals(3, borders.getGridSpan(5, column + 3));
+            assertEquals(2, borders.getRowSpan(5, column + 3));
+            assertTrue(borders.isHMerge(5, column + 4) && !borders.isVMerge(5, column + 4));
+            assertTrue(borders.isHMerge(5, column + 5) && !borders.isVMerge(5, column + 5));
+            assertTrue(borders.isVMerge(6, column + 3) && !borders.isHMerge(6, column + 3));
+            assertTrue(borders.isVMerge(6, column + 4) && borders.isHMerge(6, column + 4));
+        }
+
+        int mergedCells = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (borders.isHMerge(row, column) || borders.isVMerge(row, column)) {
+                    mergedCells++;
+                }
+            }
+        }
+        assertEquals(COLUMNS / BLOCK_WIDTH * 7, mergedCells);
+    }
+
+    @Test
+    void bordersOfMergedCellsMoveToTheNeighbourCell() {
+        TableBorders borders = new TableBorders(createTable(true, false));
+
+        for (int column = 0; column + BLOCK_WIDTH <= COLUMNS; column += BLOCK_WIDTH) {
+            //Cell 0,column+1 merged into 0,column : no neighbour above, right and bottom moved
+            int merged = column + 1;
+            assertEquals(rgb(TOP), borders.getEdge(0, merged, TableBorders.TOP));
+            assertEquals(TableBorders.ABSENT, borders.getEdge(0, merged, TableBorders.RIGHT));
+            assertEquals(TableBorders.ABSENT, borders.getEdge(0, merged, TableBorders.BOTTOM));
+            assertEquals(rgb(RIGHT), borders.getEdge(0, merged + 1, TableBorders.LEFT));
+            assertEquals(rgb(BOTTOM), borders.getEdge(1, merged, TableBorders.TOP));
+            //Left border copied on the first cell of the region, which is not merged so keeps it
+            assertEquals(rgb(LEFT), borders.getEdge(0, column, TableBorders.RIGHT));
+
+            //Cell 3,column+2 merged into 2,column+2 : top, right and bottom moved
+            merged = column + 2;
+            assertEquals(TableBorders.ABSENT, borders.getEdge(3, merged, TableBorders.TOP));
+            assertEquals(TableBorders.ABSENT, borders.getEdge(3, merged, TableBorders.RIGHT));
+            assertEquals(TableBorders.ABSENT, borders.getEdge(3, merged, TableBorders.BOTTOM));
+            assertEquals(rgb(TOP), borders.getEdge(2, merged, TableBorders.BOTTOM));
+            assertEquals(rgb(RIGHT), borders.getEdge(3, merged + 1, TableBorders.LEFT));
+            assertEquals(rgb(BOTTOM), borders.getEdge(4, merged, TableBorders.TOP));
+            assertEquals(rgb(LEFT), borders.getEdge(3, merged - 1, TableBorders.RIGHT));
+        }
+    }
+
+    @Test
+    void bordersAreTheOnesOfTheBaselinePostProcessing() throws IOException {
+        TableData data = createTable(true, true);
+        TableBorders borders = new TableBorders(data);
+
+        try (XMLSlideShow ppt = new XMLSlideShow()) {
+            XSLFTable table = baselineTable(ppt.createSlide(), data);
+            for (int row = 0; row < ROWS; row++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    XSLFTableCell cell = table.getCell(row, column);
+                    String position = "cell " + row + "," + column;
+                    assertEquals(baselineEdge(cell, TableCell.BorderEdge.top), borders.getEdge(row, column, TableBorders.TOP), position);
+                    assertEquals(baselineEdge(cell, TableCell.BorderEdge.right), borders.getEdge(row, column, TableBorders.RIGHT), position);
+                    assertEquals(baselineEdge(cell, TableCell.BorderEdge.bottom), borders.getEdge(row, column, TableBorders.BOTTOM), position);
+                    assertEquals(baselineEdge(cell, TableCell.BorderEdge.left), borders.getEdge(row, column, TableBorders.LEFT), position);
+                    assertEquals(cell.isMerged(), borders.isHMerge(row, column) || borders.isVMerge(row, column), position);
+                }
+            }
+        }
+    }
+
+    @Test
+    void directAndXslfGeneratorsWriteTheSameBorders(@TempDir Path folder) throws IOException {
+        TableData data = createTable(true, true);
+        File templateFile = folder.resolve("template.pptx").toFile();
+        try (XMLSlideShow ppt = new XMLSlideShow(); OutputStream out = new FileOutputStream(templateFile)) {
+            ppt.createSlide();
+            ppt.write(out);
+        }
+        TemplateSnapshot template = TemplateSnapshot.load(templateFile);
+
+        List<String> direct = describeCells(generate(new DirectTableGenerator(RunReport.NONE), template, data));
+        List<String> xslf = describeCells(generate(new XslfTableGenerator(RunReport.NONE), template, data));
+        assertEquals(ROWS * COLUMNS, direct.size());
+        for (int i = 0; i < direct.size(); i++) {
+            assertEquals(xslf.get(i), direct.get(i), "cell " + i / COLUMNS + "," + i % COLUMNS);
+        }
+    }
+
+    /**
+     * @param merges add the merged regions of the blocks
+     * @param varied styles with various borders on every cell, instead of BOXED on the merged cells of the blocks only
+     */
+    private static TableData createTable(boolean merges, boolean varied) {
+        StyleTable styleTable = new StyleTable();
+        List<CellStyle> variedStyles = List.of(
+                CellStyle.EMPTY,
+                BOXED,
+                style(Color.RED, null, null, null),
+                style(null, Color.BLUE, null, Color.GREEN),
+                style(null, null, Color.ORANGE, null),
+                style(Color.BLACK, Color.BLACK, Color.BLACK, Color.BLACK));
+        int[] variedIds = variedStyles.stream().mapToInt(styleTable::intern).toArray();
+        int emptyId = styleTable.intern(CellStyle.EMPTY);
+        int boxedId = styleTable.intern(BOXED);
+
+        String[] texts = new String[ROWS * COLUMNS];
+        int[] styleIds = new int[texts.length];
+        for (int column = 0; column < COLUMNS; column++) {
+            for (int row = 0; row < ROWS; row++) {
+                int cell = column * ROWS + row;
+                texts[cell] = row + "," + column;
+                if (varied) {
+                    styleIds[cell] = variedIds[(row * 31 + column * 7) % variedIds.length];
+                } else {
+                    styleIds[cell] = isBoxed(row, column) ? boxedId : emptyId;
+                }
+            }
+        }
+        float[] columnWidths = new float[COLUMNS];
+        Arrays.fill(columnWidths, 40f);
+
+        List<Integer> mergedRegions = new ArrayList<>();
+        if (merges) {
+            for (int column = 0; column + BLOCK_WIDTH <= COLUMNS; column += BLOCK_WIDTH) {
+                mergedRegions.addAll(List.of(0, 0, column, column + 1));
+                mergedRegions.addAll(List.of(2, 3, column + 2, column + 2));
+                mergedRegions.addAll(List.of(5, 6, column + 3, column + 5));
+            }
+        }
+        return new TableData(ROWS, COLUMNS, texts, styleIds, columnWidths, mergedRegions.stream().mapToInt(Integer::intValue).toArray(), styleTable);
+    }
+
+    /**
+     * Table built the way the generator did before {@link TableBorders} : borders of the cell style
+     * (applyBorderStyle), left border set on the previous cell (fixLeftBorderStyle), then after the merges the borders
+     * of merged cells moved on the neighbour cells (fixBorderOnMergedCell and copyStyleToCloseCell).
+     */
+    private static XSLFTable baselineTable(XSLFSlide slide, TableData data) {
+        XSLFTable table = slide.createTable();
+        for (int row = 0; row < data.getRowCount(); row++) {
+            XSLFTableRow pptRow = table.addRow();
+            for (int column = 0; column < data.getColumnCount(); column++) {
+                XSLFTableCell pptCell = pptRow.addCell();
+                CellStyle style = data.getStyle(row, column);
+                setBaselineBorder(pptCell, TableCell.BorderEdge.bottom, style.getBorderBottomColor());
+                setBaselineBorder(pptCell, TableCell.BorderEdge.top, style.getBorderTopColor());
+                setBaselineBorder(pptCell, TableCell.BorderEdge.right, style.getBorderRightColor());
+                if (style.getBorderLeftColor() != null && column > 0) {
+                    XSLFTableCell previous = pptRow.getCells().get(column - 1);
+                    previous.removeBorder(TableCell.BorderEdge.right);
+                    setBaselineBorder(previous, TableCell.BorderEdge.right, style.getBorderLeftColor());
+                }
+            }
+        }
+        for (int i = 0; i < data.getMergedRegionCount(); i++) {
+            table.mergeCells(data.getMergedFirstRow(i), data.getMergedLastRow(i), data.getMergedFirstColumn(i), data.getMergedLastColumn(i));
+        }
+
+        for (int row = 0; row < table.getNumberOfRows(); row++) {
+            List<XSLFTableCell> cells = table.getRows().get(row).getCells();
+            for (int column = 0; column < cells.size(); column++) {
+                XSLFTableCell cell = cells.get(column);
+                if (!cell.isMerged()) {
+                    continue;
+                }
+                for (TableCell.BorderEdge edge : TableCell.BorderEdge.values()) {
+                    if (cell.getBorderWidth(edge) == null) {
+                        continue;
+                    }
+                    switch (edge) {
+                        case top -> copyBaselineBorder(cell, edge, table.getCell(row - 1, column), TableCell.BorderEdge.bottom);
+                        case bottom -> copyBaselineBorder(cell, edge, table.getCell(row + 1, column), TableCell.BorderEdge.top);
+                        case left -> copyBaselineBorder(cell, edge, table.getCell(row, column - 1), TableCell.BorderEdge.right);
+                        case right -> copyBaselineBorder(cell, edge, table.getCell(row, column + 1), TableCell.BorderEdge.left);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    private static void setBaselineBorder(XSLFTableCell cell, TableCell.BorderEdge edge, Color color) {
+        if (color != null) {
+            cell.setBorderColor(edge, color);
+            cell.setBorderWidth(edge, 1);
+        }
+    }
+
+    private static void copyBaselineBorder(XSLFTableCell cell, TableCell.BorderEdge edge, XSLFTableCell cellNextTo, TableCell.BorderEdge oppositeEdge) {
+        if (cellNextTo == null) {
+            return;
+        }
+        cellNextTo.removeBorder(oppositeEdge);
+        cellNextTo.setBorderWidth(oppositeEdge, cell.getBorderWidth(edge));
+        cellNextTo.setBorderColor(oppositeEdge, cell.getBorderColor(edge));
+        cell.removeBorder(edge);
+    }
+
+    /**
+     * @return edge of a baseline cell in the {@link TableBorders} encoding
+     */
+    private static int baselineEdge(XSLFTableCell cell, TableCell.BorderEdge edge) {
+        CTTableCellProperties properties = ((CTTableCell) cell.getXmlObject()).getTcPr();
+        boolean set = switch (edge) {
+            case top -> properties.isSetLnT();
+            case right -> properties.isSetLnR();
+            case bottom -> properties.isSetLnB();
+            case left -> properties.isSetLnL();
+        };
+        if (!set) {
+            return TableBorders.ABSENT;
+        }
+        Color color = cell.getBorderColor(edge);
+        return color == null ? TableBorders.NO_FILL : rgb(color);
+    }
+
+    //The second cell of the horizontal region and the second cell of the vertical region of each block
+    private static boolean isBoxed(int row, int column) {
+        int offset = column % BLOCK_WIDTH;
+        return column - offset + BLOCK_WIDTH <= COLUMNS && (row == 0 && offset == 1 || row == 3 && offset == 2);
+    }
+
+    private static CellStyle style(Color top, Color bottom, Color right, Color left) {
+        return new CellStyle(null, CellStyle.VerticalAlign.BOTTOM, CellStyle.TextAlign.LEFT, "Calibri", null, false, false, top, bottom, right, left);
+    }
+
+    private static int rgb(Color color) {
+        return color.getRGB() & 0xFFFFFF;
+    }
+
+    private static byte[] generate(TableGenerator generator, TemplateSnapshot template, TableData data) throws IOException {
+        RegionDeck deck = new RegionDeck(template);
+        try (generator) {
+            generator.generateSlide(data, deck, new CompiledConfig.Anchor(20, 60, 900, 400), 9, 1);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        deck.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return spans, merges and the four borders of every cell of the table of the deck, row by row
+     */
+    private static List<String> describeCells(byte[] deck) throws IOException {
+        List<String> cells = new ArrayList<>();
+        try (XMLSlideShow ppt = new XMLSlideShow(new ByteArrayInputStream(deck))) {
+            XSLFTable table = null;
+            for (XSLFShape shape : ppt.getSlides().get(0).getShapes()) {
+                if (shape instanceof XSLFTable slideTable) {
+                    table = slideTable;
+                }
+            }
+            assertNotNull(table);
+            for (int row = 0; row < table.getNumberOfRows(); row++) {
+                for (int column = 0; column < table.getNumberOfColumns(); column++) {
+                    CTTableCell cell = (CTTableCell) table.getCell(row, column).getXmlObject();
+                    CTTableCellProperties properties = cell.getTcPr();
+                    cells.add("gridSpan=" + (cell.isSetGridSpan() ? cell.getGridSpan() : 1)
+                            + " rowSpan=" + (cell.isSetRowSpan() ? cell.getRowSpan() : 1)
+                            + " hMerge=" + (cell.isSetHMerge() && cell.getHMerge())
+                            + " vMerge=" + (cell.isSetVMerge() && cell.getVMerge())
+                            + " top=" + describe(properties.isSetLnT() ? properties.getLnT() : null)
+                            + " right=" + describe(properties.isSetLnR() ? properties.getLnR() : null)
+                            + " bottom=" + describe(properties.isSetLnB() ? properties.getLnB() : null)
+                            + " left=" + describe(properties.isSetLnL() ? properties.getLnL() : null));
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static String describe(CTLineProperties line) {
+        if (line == null) {
+            return "absent";
+        }
+        if (line.isSetNoFill()) {
+            return "noFill";
+        }
+        String color = line.isSetSolidFill() && line.getSolidFill().isSetSrgbClr() ? Arrays.toString(line.getSolidFill().getSrgbClr().getVal()) : "?";
+        return color + "/" + line.getW();
+    }
+}
@@ -0,0 +1,157 @@
+package org.tdubuis.incremental;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tdubuis.config.ConfigFile;
+import org.tdubuis.filedata.CellStyle;
+import org.tdubuis.filedata.ExcelData;
+import org.tdubuis.filedata.StyleTable;
+import org.tdubuis.filedata.TableData;
+import org.tdubuis.reader.StreamingExcelReader;
+import org.tdubuis.reader.WorkbookExcelReader;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Regions saved in the {@link ExtractCache} must load back unchanged, and only for the same workbook content, titles,
+ * reader and locale.
+ */
+class ExtractCacheTest {
+
+    @Test
+    void savedRegionsLoadBack(@TempDir Path folder) throws IOException {
+        File workbook = workbook(folder, "content");
+        List<ExcelData> regions = regions();
+        ExtractCache.forWorkbook(folder.toFile(), workbook, config("Synth\u00e8se :", "Effectif"), WorkbookExcelReader.class).save(regions);
+
+        List<ExcelData> loaded = ExtractCache.forWorkbook(folder.toFile(), workbook, config("Synth\u00e8se :", "Effectif"), WorkbookExcelReader.class).load();
+        assertNotNull(loaded);
+        assertEquals(describe(regions), describe(loaded));
+    }
+
+    @Test
+    void anotherKeyIsAMiss(@TempDir Path folder) throws IOException {
+        File workbook = workbook(folder, "content");
+        ConfigFile config = config("Synth\u00e8se :", "Effectif");
+        ExtractCache.forWorkbook(folder.toFile(), workbook, config, WorkbookExcelReader.class).save(regions());
+
+        //Other titles
+        assertNull(ExtractCache.forWorkbook(folder.toFile(), workbook, config("Synth\u00e8se :"), WorkbookExcelReader.class).load());
+        assertNull(ExtractCache.forWorkbook(folder.toFile(), workbook, config("Effectif", "Synth\u00e8se :"), WorkbookExcelReader.class).load());
+        //Other reader
+        assertNull(ExtractCache.forWorkbook(folder.toFile(), workbook, config, StreamingExcelReader.class).load());
+        //Other locale of the formats
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, locale.equals(Locale.FRANCE) ? Locale.US : Locale.FRANCE);
+            assertNull(ExtractCache.forWorkbook(folder.toFile(), workbook, config, WorkbookExcelReader.class).load());
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, locale);
+        }
+        //Other workbook content
+        workbook(folder, "other content");
+        assertNull(ExtractCache.forWorkbook(folder.toFile(), workbook, config, WorkbookExcelReader.class).load());
+        workbook(folder, "content");
+
+        //Same key
+        assertNotNull(ExtractCache.forWorkbook(folder.toFile(), workbook, config, WorkbookExcelReader.class).load());
+    }
+
+    @Test
+    void unreadableFileIsAMiss(@TempDir Path folder) throws IOException {
+        File workbook = workbook(folder, "content");
+        ExtractCache cache = ExtractCache.forWorkbook(folder.toFile(), workbook, config("Effectif"), WorkbookExcelReader.class);
+        assertNull(cache.load());
+
+        cache.save(regions());
+        byte[] content = Files.readAllBytes(cache.getCacheFile().toPath());
+        //Truncated after the header
+        Files.write(cache.getCacheFile().toPath(), Arrays.copyOf(content, 40));
+        assertNull(cache.load());
+        //Another format
+        Files.write(cache.getCacheFile().toPath(), new byte[]{1, 2, 3});
+        assertNull(cache.load());
+    }
+
+    private static File workbook(Path folder, String content) throws IOException {
+        File workbook = folder.resolve("DATA.xlsx").toFile();
+        Files.writeString(workbook.toPath(), content);
+        return workbook;
+    }
+
+    private static ConfigFile config(String... titles) {
+        List<ConfigFile.Config> entries = new ArrayList<>();
+        for (String title : titles) {
+            ConfigFile.Config entry = new ConfigFile.Config();
+            entry.setTitle(title);
+            entries.add(entry);
+        }
+        ConfigFile config = new ConfigFile();
+        config.setConfig(entries);
+        return config;
+    }
+
+    private static List<ExcelData> regions() {
+        StyleTable styleTable = new StyleTable();
+        int plain = styleTable.intern(CellStyle.EMPTY);
+        int styled = styleTable.intern(new CellStyle(new Color(10, 20, 30, 40), CellStyle.VerticalAlign.MIDDLE, CellStyle.TextAlign.RIGHT,
+                null, Color.RED, true, true, Color.BLACK, null, Color.BLUE, null));
+        TableData table = new TableData(2, 3, new String[]{"Synth\u00e8se :", null, "12 %", "", "-4", "1 234"},
+                new int[]{styled, plain, plain, styled, plain, plain}, new float[]{40f, 55.5f, 0f}, new int[]{0, 1, 0, 0}, styleTable);
+        TableData empty = new TableData(0, 0, new String[0], new int[0], new float[0], new int[0], styleTable);
+
+        ExcelData north = new ExcelData("NORD");
+        north.setDataMapMonth(new HashMap<>(Map.of("Synth\u00e8se :", table, "Effectif", empty)));
+        north.setDataMapYTD(new HashMap<>(Map.of("Synth\u00e8se :", table)));
+        //Region missing its YTD sheet
+        ExcelData south = new ExcelData("SUD");
+        south.setDataMapMonth(new HashMap<>(Map.of("Effectif", table)));
+        return List.of(north, south);
+    }
+
+    private static List<String> describe(List<ExcelData> regions) {
+        List<String> lines = new ArrayList<>();
+        for (ExcelData region : regions) {
+            lines.add("region " + region.getRegion());
+            describe(lines, "month", region.getDataMapMonth());
+            describe(lines, "ytd", region.getDataMapYTD());
+        }
+        return lines;
+    }
+
+    private static void describe(List<String> lines, String name, Map<String, TableData> tables) {
+        if (tables == null) {
+            lines.add(name + " null");
+            return;
+        }
+        for (Map.Entry<String, TableData> entry : new TreeMap<>(tables).entrySet()) {
+            TableData table = entry.getValue();
+            lines.add(name + " " + entry.getKey() + " " + table.getRowCount() + "x" + table.getColumnCount());
+            for (int column = 0; column < table.getColumnCount(); column++) {
+                lines.add("width " + table.getColumnWidth(column));
+                for (int row = 0; row < table.getRowCount(); row++) {
+                    lines.add(table.getText(row, column) + " " + table.getStyle(row, column));
+                }
+            }
+            for (int i = 0; i < table.getMergedRegionCount(); i++) {
+                lines.add("merged " + table.getMergedFirstRow(i) + "," + table.getMergedLastRow(i) + ","
+                        + table.getMergedFirstColumn(i) + "," + table.getMergedLastColumn(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.tdubuis.template;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Packages written by {@link ZipChannelWriter} must read back the same with java.util.zip and with POI's OPCPackage,
+ * whatever the method of each entry.
+ */
+class ZipChannelWriterTest {
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Default Extension="png" ContentType="image/png"/>\
+            <Default Extension="bin" ContentType="application/octet-stream"/>\
+            </Types>""";
+    private static final String RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="doc/main.xml"/>\
+            </Relationships>""";
+    private static final byte[] MAIN = "<main>R\u00e9sultats \u20ac</main>".repeat(200).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STORED = "stored part".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] IMAGE = randomBytes(70_000);
+    private static final byte[] EMPTY = new byte[0];
+    private static final String UTF8_NAME = "doc/donn\u00e9es/synth\u00e8se_\u00e9t\u00e9.xml";
+
+    @Test
+    void roundTripWithEveryMethod(@TempDir Path folder) throws IOException, InvalidFormatException {
+        ZipChannelWriter.RawEntry deflatedImage = rawDeflated(IMAGE);
+        ZipChannelWriter.RawEntry storedImage = new ZipChannelWriter.RawEntry(ZipChannelWriter.STORED, checksum(IMAGE), IMAGE.length, IMAGE);
+        byte[] zip = write(6, deflatedImage, storedImage);
+
+        File file = folder.resolve("package.zip").toFile();
+        Files.write(file.toPath(), zip);
+        try (ZipFile zipFile = new ZipFile(file, StandardCharsets.UTF_8)) {
+            assertEquals(8, zipFile.size());
+            assertEntry(zipFile, "doc/main.xml", ZipEntry.DEFLATED, MAIN);
+            assertEntry(zipFile, "doc/stored.bin", ZipEntry.STORED, STORED);
+            assertEntry(zipFile, "doc/empty.bin", ZipEntry.DEFLATED, EMPTY);
+            assertEntry(zipFile, UTF8_NAME, ZipEntry.DEFLATED, MAIN);
+            assertEntry(zipFile, "doc/media/deflated.png", ZipEntry.DEFLATED, IMAGE);
+            assertEntry(zipFile, "doc/media/stored.png", ZipEntry.STORED, IMAGE);
+            //Raw entries are copied as is, not compressed again
+            assertEquals(deflatedImage.data().length, zipFile.getEntry("doc/media/deflated.png").getCompressedSize());
+            assertEquals(IMAGE.length, zipFile.getEntry("doc/media/stored.png").getCompressedSize());
+        }
+        assertArrayEquals(deflatedImage.data(), rawData(zip, "doc/media/deflated.png"));
+
+        try (OPCPackage opc = OPCPackage.open(new ByteArrayInputStream(zip))) {
+            assertPart(opc, "/doc/main.xml", MAIN);
+            assertPart(opc, "/doc/stored.bin", STORED);
+            assertPart(opc, "/doc/empty.bin", EMPTY);
+            assertPart(opc, "/doc/media/deflated.png", IMAGE);
+            assertPart(opc, "/doc/media/stored.png", IMAGE);
+            assertEquals(1, opc.getRelationships().size());
+            //The name is read back in UTF-8 (percent-encoded in the part name)
+            PackagePart utf8Part = null;
+            for (PackagePart part : opc.getParts()) {
+                if (part.getPartName().getURI().getPath().equals("/" + UTF8_NAME)) {
+                    utf8Part = part;
+                }
+            }
+            assertNotNull(utf8Part, UTF8_NAME);
+            try (InputStream in = utf8Part.getInputStream()) {
+                assertArrayEquals(MAIN, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void levelZeroStoresTheDeflatedParts(@TempDir Path folder) throws IOException, InvalidFormatException {
+        ZipChannelWriter.RawEntry deflatedImage = rawDeflated(IMAGE);
+        byte[] zip = write(0, deflatedImage, deflatedImage);
+
+        File file = folder.resolve("package.zip").toFile();
+        Files.write(file.toPath(), zip);
+        try (ZipFile zipFile = new ZipFile(file, StandardCharsets.UTF_8)) {
+            assertEntry(zipFile, "[Content_Types].xml", ZipEntry.STORED, CONTENT_TYPES.getBytes(StandardCharsets.UTF_8));
+            assertEntry(zipFile, "doc/main.xml", ZipEntry.STORED, MAIN);
+            assertEntry(zipFile, UTF8_NAME, ZipEntry.STORED, MAIN);
+            assertEntry(zipFile, "doc/empty.bin", ZipEntry.STORED, EMPTY);
+            //The level only applies to putDeflated, raw entries keep their method
+            assertEntry(zipFile, "doc/media/deflated.png", ZipEntry.DEFLATED, IMAGE);
+        }
+        try (OPCPackage opc = OPCPackage.open(new ByteArrayInputStream(zip))) {
+            assertPart(opc, "/doc/main.xml", MAIN);
+            assertPart(opc, "/doc/media/deflated.png", IMAGE);
+        }
+    }
+
+    @Test
+    void utf8NamesAreFlagged() throws IOException {
+        byte[] zip = write(6, rawDeflated(IMAGE), rawDeflated(IMAGE));
+        byte[] name = UTF8_NAME.getBytes(StandardCharsets.UTF_8);
+        int header = indexOf(zip, name) - 30;
+        assertEquals(0x04034b50, readInt(zip, header));
+        //General purpose flag, bit 11 : name in UTF-8
+        assertEquals(0x800, readShort(zip, header + 6) & 0x800);
+        assertEquals(name.length, readShort(zip, header + 26));
+    }
+
+    private static byte[] write(int compressionLevel, ZipChannelWriter.RawEntry deflatedImage, ZipChannelWriter.RawEntry storedImage) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipChannelWriter zip = new ZipChannelWriter(Channels.newChannel(out), compressionLevel)) {
+            zip.putDeflated("[Content_Types].xml", CONTENT_TYPES.getBytes(StandardCharsets.UTF_8));
+            zip.putDeflated("_rels/.rels", RELS.getBytes(StandardCharsets.UTF_8));
+            zip.putDeflated("doc/main.xml", MAIN);
+            zip.putStored("doc/stored.bin", STORED);
+            zip.putDeflated("doc/empty.bin", EMPTY);
+            zip.putDeflated(UTF8_NAME, MAIN);
+            zip.putRaw("doc/media/deflated.png", deflatedImage);
+            zip.putRaw("doc/media/stored.png", storedImage);
+            zip.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertEntry(ZipFile zipFile, String name, int method, byte[] data) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        assertNotNull(entry, name);
+        assertEquals(method, entry.getMethod(), name);
+        assertEquals(data.length, entry.getSize(), name);
+        assertEquals(checksum(data), entry.getCrc(), name);
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            assertArrayEquals(data, in.readAllBytes(), name);
+        }
+    }
+
+    private static void assertPart(OPCPackage opc, String name, byte[] data) throws IOException, InvalidFormatException {
+        PackagePart part = opc.getPart(PackagingURIHelper.createPartName(name));
+        assertNotNull(part, name);
+        try (InputStream in = part.getInputStream()) {
+            assertArrayEquals(data, in.readAllBytes(), name);
+        }
+    }
+
+    /**
+     * @return the entry as found in a template, deflated by another writer
+     */
+    private static ZipChannelWriter.RawEntry rawDeflated(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return new ZipChannelWriter.RawEntry(ZipChannelWriter.DEFLATED, checksum(data), data.length, compressed.toByteArray());
+    }
+
+    /**
+     * @return compressed data of the entry, read from its local header
+     */
+    private static byte[] rawData(byte[] zip, String name) {
+        int header = indexOf(zip, name.getBytes(StandardCharsets.UTF_8)) - 30;
+        int compressedSize = readInt(zip, header + 18);
+        int start = header + 30 + readShort(zip, header + 26) + readShort(zip, header + 28);
+        byte[] data = new byte[compressedSize];
+        System.arraycopy(zip, start, data, 0, compressedSize);
+        return data;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i + pattern.length <= data.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return data[offset] & 0xFF | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return readShort(data, offset) | readShort(data, offset + 2) << 16;
+    }
+
+    private static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(7).nextBytes(data);
+        return data;
+    }
+}